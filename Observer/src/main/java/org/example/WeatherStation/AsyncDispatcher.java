@@ -0,0 +1,168 @@
+package org.example.WeatherStation;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+// Delivers notifications to observers on an executor instead of the notifying thread.
+//
+// publish() only puts the conditions on one bounded queue, so it takes the same time whatever the
+// number of observers. A single dispatcher thread copies every notification into the mailboxes
+// of all observers, each of which is drained by its own task on the executor. When the dispatcher
+// falls behind and that queue is full, publish() waits only if some observer asked for
+// OverflowPolicy.BLOCK. Otherwise it drops the oldest queued notification, which no observer is
+// promised anyway.
+// close() queues the CLOSE sentinel behind everything published, and the dispatcher stops once
+// it takes it.
+class AsyncDispatcher {
+
+	// compared by identity, never delivered
+	private static final WeatherConditions CLOSE = new WeatherConditions();
+
+	private final Executor executor;
+	private final int mailboxCapacity;
+	private final OverflowPolicy defaultPolicy;
+	private final BlockingQueue<WeatherConditions> published;
+	private final List<Mailbox> mailboxes = new CopyOnWriteArrayList<>();
+	private final AtomicInteger blockingMailboxes = new AtomicInteger();
+	private final AtomicLong droppedUnpublished = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private volatile BiConsumer<Observer, RuntimeException> failureHandler;
+	private final Thread dispatcher;
+	private volatile boolean closed;
+
+	AsyncDispatcher(Executor executor, int mailboxCapacity, OverflowPolicy defaultPolicy) {
+		if(mailboxCapacity < 1) {
+			throw new IllegalArgumentException("Mailbox capacity must be positive: " + mailboxCapacity);
+		}
+		this.executor = executor;
+		this.mailboxCapacity = mailboxCapacity;
+		this.defaultPolicy = defaultPolicy;
+		this.published = new ArrayBlockingQueue<>(mailboxCapacity);
+		this.dispatcher = new Thread(this::dispatch, "weather-dispatcher");
+		dispatcher.setDaemon(true);
+		dispatcher.start();
+	}
+
+	void register(Observer o) {
+		register(o, defaultPolicy);
+	}
+
+	void register(Observer o, OverflowPolicy overflowPolicy) {
+		if(overflowPolicy == OverflowPolicy.BLOCK) {
+			blockingMailboxes.incrementAndGet();
+		}
+		mailboxes.add(new Mailbox(o, overflowPolicy, mailboxCapacity, executor, this::observerFailed));
+	}
+
+	void remove(Observer o) {
+		for(Mailbox mailbox : mailboxes) {
+			if(mailbox.getObserver() == o && mailboxes.remove(mailbox)) {
+				if(mailbox.getOverflowPolicy() == OverflowPolicy.BLOCK) {
+					blockingMailboxes.decrementAndGet();
+				}
+				mailbox.close();
+			}
+		}
+	}
+
+	void publish(WeatherConditions conditions) {
+		if(closed) {
+			return;
+		}
+		if(blockingMailboxes.get() > 0) {
+			try {
+				published.put(conditions);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return;
+		}
+		while(!published.offer(conditions)) {
+			WeatherConditions oldest = published.poll();
+			if(oldest == CLOSE) {
+				// close() came in since the check above, the dispatcher still has to get the sentinel
+				putClose();
+				return;
+			}
+			if(oldest != null) {
+				droppedUnpublished.incrementAndGet();
+			}
+		}
+	}
+
+	long getDropped() {
+		long dropped = droppedUnpublished.get();
+		for(Mailbox mailbox : mailboxes) {
+			dropped += mailbox.getDropped();
+		}
+		return dropped;
+	}
+
+	void setFailureHandler(BiConsumer<Observer, RuntimeException> failureHandler) {
+		this.failureHandler = failureHandler;
+	}
+
+	long getFailed() {
+		return failed.get();
+	}
+
+	// Delivers everything published so far and stops the dispatcher thread
+	synchronized void close() throws InterruptedException {
+		if(!closed) {
+			closed = true;
+			published.put(CLOSE);
+		}
+		dispatcher.join();
+		for(Mailbox mailbox : mailboxes) {
+			mailbox.awaitIdle();
+		}
+	}
+
+	// Runs on the mailbox's drain task, which must go on whatever the handler does
+	private void observerFailed(Observer o, RuntimeException e) {
+		failed.incrementAndGet();
+		BiConsumer<Observer, RuntimeException> handler = failureHandler;
+		if(handler != null) {
+			try {
+				handler.accept(o, e);
+			} catch (RuntimeException ignored) {
+				// already counted
+			}
+		}
+	}
+
+	private void putClose() {
+		boolean interrupted = false;
+		while(true) {
+			try {
+				published.put(CLOSE);
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void dispatch() {
+		try {
+			WeatherConditions next;
+			while((next = published.take()) != CLOSE) {
+				for(Mailbox mailbox : mailboxes) {
+					mailbox.post(next);
+				}
+			}
+		} catch (InterruptedException e) {
+			// only an outside interrupt gets here, stop dispatching
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package org.example.WeatherStation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded queue of notifications for one observer.
+//
+// A drain task is submitted to the executor only when the mailbox gets work and no task is
+// scheduled yet, so each observer is updated by at most one thread at a time and in order,
+// while different observers are updated in parallel.
+class Mailbox {
+
+	// notifications delivered by one task before it makes room for other observers' tasks
+	private static final int DRAIN_BATCH = 64;
+
+	private final Observer observer;
+	private final OverflowPolicy overflowPolicy;
+	private final int capacity;
+	private final Executor executor;
+	private final BiConsumer<Observer, RuntimeException> failureHandler;
+
+	private final Deque<WeatherConditions> pending = new ArrayDeque<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	private final Condition idle = lock.newCondition();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private volatile boolean closed;
+	private long dropped;
+
+	// failureHandler gets what update() throws, the observer keeps getting notifications
+	Mailbox(Observer observer, OverflowPolicy overflowPolicy, int capacity, Executor executor,
+			BiConsumer<Observer, RuntimeException> failureHandler) {
+		this.observer = observer;
+		this.overflowPolicy = overflowPolicy;
+		this.capacity = capacity;
+		this.executor = executor;
+		this.failureHandler = failureHandler;
+	}
+
+	Observer getObserver() {
+		return observer;
+	}
+
+	OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	void post(WeatherConditions conditions) throws InterruptedException {
+		lock.lock();
+		try {
+			while(true) {
+				if(closed) {
+					return;
+				}
+				int before = pending.size();
+				if(overflowPolicy.offer(pending, capacity, conditions)) {
+					dropped += before + 1 - pending.size();
+					break;
+				}
+				notFull.await();
+			}
+		} finally {
+			lock.unlock();
+		}
+		schedule();
+	}
+
+	// Pending notifications are discarded and a dispatcher waiting for room is released
+	void close() {
+		lock.lock();
+		try {
+			closed = true;
+			pending.clear();
+			notFull.signalAll();
+			idle.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void awaitIdle() throws InterruptedException {
+		lock.lock();
+		try {
+			while(!closed && (!pending.isEmpty() || scheduled.get())) {
+				idle.await();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	long getDropped() {
+		lock.lock();
+		try {
+			return dropped;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// An executor that rejects the drain task can never deliver the pending notifications,
+	// so they are counted as dropped and the mailbox is closed
+	private void schedule() {
+		if(!closed && scheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(this::drain);
+			} catch (RejectedExecutionException e) {
+				lock.lock();
+				try {
+					dropped += pending.size();
+					scheduled.set(false);
+				} finally {
+					lock.unlock();
+				}
+				close();
+			}
+		}
+	}
+
+	private void drain() {
+		for(int i=0; i<DRAIN_BATCH && !closed; i++) {
+			WeatherConditions next = poll();
+			if(next == null) {
+				break;
+			}
+			try {
+				observer.update(next);
+			} catch (RuntimeException e) {
+				failureHandler.accept(observer, e);
+			}
+		}
+		lock.lock();
+		try {
+			scheduled.set(false);
+			if(pending.isEmpty() || closed) {
+				idle.signalAll();
+				return;
+			}
+		} finally {
+			lock.unlock();
+		}
+		// more work arrived during the batch, or the batch was full
+		schedule();
+	}
+
+	private WeatherConditions poll() {
+		lock.lock();
+		try {
+			WeatherConditions next = pending.pollFirst();
+			if(next != null) {
+				notFull.signal();
+			}
+			return next;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
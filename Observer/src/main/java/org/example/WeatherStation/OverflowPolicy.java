@@ -0,0 +1,46 @@
+package org.example.WeatherStation;
+
+import java.util.Deque;
+
+// What an observer's mailbox does with a new notification when it is full.
+public enum OverflowPolicy {
+
+	// the dispatcher waits for room, so a slow observer slows down everything once the queues fill up
+	BLOCK {
+		@Override
+		boolean offer(Deque<WeatherConditions> mailbox, int capacity, WeatherConditions conditions) {
+			if(mailbox.size() >= capacity) {
+				return false;
+			}
+			mailbox.addLast(conditions);
+			return true;
+		}
+	},
+	// the oldest pending notification is discarded
+	DROP_OLDEST {
+		@Override
+		boolean offer(Deque<WeatherConditions> mailbox, int capacity, WeatherConditions conditions) {
+			if(mailbox.size() >= capacity) {
+				mailbox.pollFirst();
+			}
+			mailbox.addLast(conditions);
+			return true;
+		}
+	},
+	// the observer only ever gets the latest conditions, whatever it has not seen yet is replaced
+	CONFLATE {
+		@Override
+		boolean offer(Deque<WeatherConditions> mailbox, int capacity, WeatherConditions conditions) {
+			mailbox.clear();
+			mailbox.addLast(conditions);
+			return true;
+		}
+	};
+
+	// Called with the mailbox locked. Returns false when the caller has to wait for room and try again.
+	abstract boolean offer(Deque<WeatherConditions> mailbox, int capacity, WeatherConditions conditions);
+
+	public static OverflowPolicy fromName(String name) {
+		return valueOf(name.toUpperCase().replace('-', '_'));
+	}
+}
@@ -6,6 +6,15 @@ public class WeatherConditions {
 	private float humidity = 0.0f;
 	private float pressure = 0.0f;
 
+	public WeatherConditions() {
+	}
+
+	public WeatherConditions(WeatherConditions other) {
+		this.temperature = other.temperature;
+		this.humidity = other.humidity;
+		this.pressure = other.pressure;
+	}
+
 	public float getTemperature() {
 		return temperature;
 	}
@@ -1,28 +1,83 @@
 package org.example.WeatherStation;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
 public class WeatherData implements Subject {
 
 	private List<Observer> observers;
 	private WeatherConditions weatherConditions;
+	private AsyncDispatcher asyncDispatcher;
 
 	
 	public WeatherData() {
 		observers = new ArrayList<>();
 		weatherConditions = new WeatherConditions();
 	}
+
+	// Observers are updated on the executor, each from its own mailbox of mailboxCapacity notifications,
+	// and get a copy of the conditions. Any executor works, e.g. one thread per task or a virtual thread per task.
+	public WeatherData(Executor executor, int mailboxCapacity, OverflowPolicy overflowPolicy) {
+		this();
+		asyncDispatcher = new AsyncDispatcher(executor, mailboxCapacity, overflowPolicy);
+	}
 	
 	public void registerObserver(Observer o) {
-		observers.add(o);
+		if(asyncDispatcher != null) {
+			asyncDispatcher.register(o);
+		} else {
+			observers.add(o);
+		}
+	}
+
+	// Async mode only, the observer gets its own overflow policy instead of the one given to the constructor
+	public void registerObserver(Observer o, OverflowPolicy overflowPolicy) {
+		if(asyncDispatcher == null) {
+			throw new IllegalStateException("Overflow policies need asynchronous dispatch");
+		}
+		asyncDispatcher.register(o, overflowPolicy);
 	}
 	
 	public void removeObserver(Observer o) {
-		observers.remove(o);
+		if(asyncDispatcher != null) {
+			asyncDispatcher.remove(o);
+		} else {
+			observers.remove(o);
+		}
 	}
 	
 	public void notifyObservers() {
-		observers.forEach(o -> o.update(weatherConditions));
+		if(asyncDispatcher != null) {
+			asyncDispatcher.publish(new WeatherConditions(weatherConditions));
+		} else {
+			observers.forEach(o -> o.update(weatherConditions));
+		}
+	}
+
+	// Notifications dropped or conflated by full mailboxes, always 0 in synchronous mode
+	public long getDroppedNotifications() {
+		return asyncDispatcher != null ? asyncDispatcher.getDropped() : 0;
+	}
+
+	// Async mode only, called with the observer and what its update() threw
+	public void setObserverFailureHandler(BiConsumer<Observer, RuntimeException> failureHandler) {
+		if(asyncDispatcher == null) {
+			throw new IllegalStateException("Failure handlers need asynchronous dispatch, update() throws to the caller");
+		}
+		asyncDispatcher.setFailureHandler(failureHandler);
+	}
+
+	// update() calls that threw in async mode
+	public long getFailedNotifications() {
+		return asyncDispatcher != null ? asyncDispatcher.getFailed() : 0;
+	}
+
+	// Async mode: waits until every observer got what was published so far and stops dispatching
+	public void close() throws InterruptedException {
+		if(asyncDispatcher != null) {
+			asyncDispatcher.close();
+		}
 	}
 	
 	public void measurementsChanged() {
@@ -1,9 +1,23 @@
 package org.example.WeatherStation;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class WeatherStation {
 
-	public static void main(String[] args) {
-		WeatherData weatherData = new WeatherData();
+	private static final int MAILBOX_CAPACITY = 16;
+
+	// usage: WeatherStation [block|drop-oldest|conflate] (updates the displays asynchronously)
+	public static void main(String[] args) throws InterruptedException {
+		ExecutorService executor = null;
+		WeatherData weatherData;
+		if(args.length > 0) {
+			executor = Executors.newCachedThreadPool();
+			weatherData = new WeatherData(executor, MAILBOX_CAPACITY, OverflowPolicy.fromName(args[0]));
+			weatherData.setObserverFailureHandler((o, e) -> System.err.println("Observer " + o + " failed: " + e));
+		} else {
+			weatherData = new WeatherData();
+		}
 	
 		CurrentWeatherConditionsDisplay currentDisplay = new CurrentWeatherConditionsDisplay(weatherData);
 		StatisticsDisplay statisticsDisplay = new StatisticsDisplay(weatherData);
@@ -13,5 +27,10 @@ public class WeatherStation {
 		weatherData.setMeasurements(80, 65, 30.4f);
 		weatherData.setMeasurements(82, 70, 29.2f);
 		weatherData.setMeasurements(78, 90, 29.2f);
+
+		weatherData.close();
+		if(executor != null) {
+			executor.shutdown();
+		}
 	}
 }
@@ -0,0 +1,232 @@
+package org.example.WeatherStation;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncDispatcherTest {
+
+	private static final int NOTIFICATIONS = 200;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		executor.shutdownNow();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+	}
+
+	@Test(timeout = 10_000)
+	public void testEveryObserverGetsNotificationsInOrder() throws InterruptedException {
+		AsyncDispatcher dispatcher = new AsyncDispatcher(executor, 8, OverflowPolicy.BLOCK);
+		List<Recorder> observers = new ArrayList<>();
+		for(int i=0; i<3; i++) {
+			Recorder observer = new Recorder();
+			observers.add(observer);
+			dispatcher.register(observer);
+		}
+
+		publish(dispatcher, 0, NOTIFICATIONS);
+		dispatcher.close();
+
+		for(Recorder observer : observers) {
+			assertEquals(range(0, NOTIFICATIONS), observer.temperatures);
+		}
+		assertEquals(0, dispatcher.getDropped());
+	}
+
+	@Test(timeout = 10_000)
+	public void testCloseDeliversEverythingPublishedBefore() throws InterruptedException {
+		AsyncDispatcher dispatcher = new AsyncDispatcher(executor, 4, OverflowPolicy.BLOCK);
+		Recorder slow = new Recorder(1);
+		Recorder fast = new Recorder();
+		dispatcher.register(slow);
+		dispatcher.register(fast);
+
+		publish(dispatcher, 0, 50);
+		dispatcher.close();
+
+		assertEquals(range(0, 50), slow.temperatures);
+		assertEquals(range(0, 50), fast.temperatures);
+		// published after close(), never delivered
+		publish(dispatcher, 50, 1);
+		assertEquals(50, fast.temperatures.size());
+	}
+
+	@Test(timeout = 10_000)
+	public void testDropOldestCountsDroppedNotifications() throws InterruptedException {
+		assertOverflowCounted(OverflowPolicy.DROP_OLDEST);
+	}
+
+	@Test(timeout = 10_000)
+	public void testConflateCountsReplacedNotifications() throws InterruptedException {
+		assertOverflowCounted(OverflowPolicy.CONFLATE);
+	}
+
+	// While the observer is stuck in its first update() everything else piles up and overflows.
+	// Whatever is not delivered is counted as dropped, and the latest notification always gets through.
+	private void assertOverflowCounted(OverflowPolicy policy) throws InterruptedException {
+		AsyncDispatcher dispatcher = new AsyncDispatcher(executor, 4, policy);
+		CountDownLatch release = new CountDownLatch(1);
+		Recorder observer = new Recorder(release);
+		dispatcher.register(observer);
+
+		publish(dispatcher, 0, 1);
+		observer.awaitFirstUpdate();
+		publish(dispatcher, 1, NOTIFICATIONS - 1);
+		release.countDown();
+		dispatcher.close();
+
+		List<Float> delivered = observer.temperatures;
+		assertTrue(dispatcher.getDropped() > 0);
+		assertEquals(NOTIFICATIONS, delivered.size() + dispatcher.getDropped());
+		assertEquals(NOTIFICATIONS - 1, delivered.get(delivered.size() - 1), 0);
+		for(int i=1; i<delivered.size(); i++) {
+			assertTrue(delivered.get(i - 1) < delivered.get(i));
+		}
+	}
+
+	@Test(timeout = 10_000)
+	public void testBlockHoldsBackThePublisher() throws InterruptedException {
+		AsyncDispatcher dispatcher = new AsyncDispatcher(executor, 2, OverflowPolicy.BLOCK);
+		CountDownLatch release = new CountDownLatch(1);
+		Recorder observer = new Recorder(release);
+		dispatcher.register(observer);
+		AtomicInteger published = new AtomicInteger();
+		Thread publisher = new Thread(() -> {
+			for(int i=0; i<NOTIFICATIONS; i++) {
+				dispatcher.publish(conditions(i));
+				published.incrementAndGet();
+			}
+		});
+
+		publisher.start();
+		observer.awaitFirstUpdate();
+		publisher.join(200);
+
+		// one notification in update(), one held by the dispatcher, two mailboxes of two
+		assertTrue(publisher.isAlive());
+		assertTrue(published.get() <= 6);
+		release.countDown();
+		publisher.join();
+		dispatcher.close();
+		assertEquals(range(0, NOTIFICATIONS), observer.temperatures);
+		assertEquals(0, dispatcher.getDropped());
+	}
+
+	@Test(timeout = 10_000)
+	public void testRejectingExecutorDoesNotHangClose() throws InterruptedException {
+		AsyncDispatcher dispatcher = new AsyncDispatcher(task -> {
+			throw new RejectedExecutionException("rejected");
+		}, 4, OverflowPolicy.BLOCK);
+		Recorder observer = new Recorder();
+		dispatcher.register(observer);
+
+		publish(dispatcher, 0, 20);
+		dispatcher.close();
+
+		assertTrue(observer.temperatures.isEmpty());
+		assertTrue(dispatcher.getDropped() > 0);
+	}
+
+	@Test(timeout = 10_000)
+	public void testObserverFailuresAreReported() throws InterruptedException {
+		AsyncDispatcher dispatcher = new AsyncDispatcher(executor, 8, OverflowPolicy.BLOCK);
+		List<RuntimeException> reported = new CopyOnWriteArrayList<>();
+		dispatcher.setFailureHandler((o, e) -> reported.add(e));
+		Recorder observer = new Recorder() {
+			@Override
+			public void update(WeatherConditions weatherConditions) {
+				super.update(weatherConditions);
+				if(weatherConditions.getTemperature() % 10 == 0) {
+					throw new IllegalStateException("failed at " + weatherConditions.getTemperature());
+				}
+			}
+		};
+		dispatcher.register(observer);
+
+		publish(dispatcher, 0, 50);
+		dispatcher.close();
+
+		assertEquals(range(0, 50), observer.temperatures);
+		assertEquals(5, dispatcher.getFailed());
+		assertEquals(5, reported.size());
+		assertEquals("failed at 0.0", reported.get(0).getMessage());
+	}
+
+	private static void publish(AsyncDispatcher dispatcher, int from, int count) {
+		for(int i=from; i<from + count; i++) {
+			dispatcher.publish(conditions(i));
+		}
+	}
+
+	private static WeatherConditions conditions(int temperature) {
+		WeatherConditions conditions = new WeatherConditions();
+		conditions.setTemperature(temperature);
+		return conditions;
+	}
+
+	private static List<Float> range(int from, int to) {
+		List<Float> temperatures = new ArrayList<>();
+		for(int i=from; i<to; i++) {
+			temperatures.add((float) i);
+		}
+		return temperatures;
+	}
+
+	// Records the temperatures it gets. Can sleep in every update() or wait in the first one until released.
+	private static class Recorder implements Observer {
+
+		private final List<Float> temperatures = new CopyOnWriteArrayList<>();
+		private final long sleepMs;
+		private final CountDownLatch release;
+		private final CountDownLatch firstUpdate = new CountDownLatch(1);
+
+		Recorder() {
+			this(0);
+		}
+
+		Recorder(long sleepMs) {
+			this.sleepMs = sleepMs;
+			this.release = new CountDownLatch(0);
+		}
+
+		Recorder(CountDownLatch release) {
+			this.sleepMs = 0;
+			this.release = release;
+		}
+
+		@Override
+		public void update(WeatherConditions weatherConditions) {
+			temperatures.add(weatherConditions.getTemperature());
+			firstUpdate.countDown();
+			try {
+				release.await();
+				if(sleepMs > 0) {
+					Thread.sleep(sleepMs);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		void awaitFirstUpdate() throws InterruptedException {
+			firstUpdate.await();
+		}
+	}
+}
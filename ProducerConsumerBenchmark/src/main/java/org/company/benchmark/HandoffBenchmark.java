@@ -0,0 +1,329 @@
+package org.company.benchmark;
+
+import org.company.KeyedObject;
+import org.company.MappedQueue;
+import org.company.ObjectQueue;
+import org.company.PartitionedQueue;
+import org.company.Pipeline;
+import org.company.RingBuffer;
+import org.company.ShardedQueue;
+import org.company.SharedList;
+import org.company.WaitStrategyType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Producer -> consumer handoff without the artificial sleeps of Producer and Consumer.
+//
+// Every group is one producers x consumers combination, every method is one side of it:
+// throughput is handoffs per second, the sample mode gives p50/p99/p99.9 of the time one offer
+// or poll call takes, including the time spent waiting for space or objects. That is not the time
+// an object spends in the queue, HandoffLatencyBenchmark measures that for the ring buffer.
+// Run with -prof gc for the allocation rate (gc.alloc.rate.norm is bytes per handoff).
+// The objects are preallocated, so anything allocated comes from the queue itself.
+//
+// monitor is the original implementation, a LinkedList guarded by its own monitor with
+// wait()/notifyAll(). mapped is bounded to capacity by the producers, since MappedQueue itself is
+// only bounded by disk space. pipeline has no poll(): a single stage worker of its own takes the
+// events, and the consume methods count the events it has handled.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandoffBenchmark {
+
+	private static final int KEYS = 64;
+	private static final long WAIT_SLICE_NS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final int MAPPED_SEGMENT_SIZE = 1024 * 1024;
+
+	@State(Scope.Group)
+	public static class Queues {
+
+		@Param({"monitor", "list", "ring", "mapped", "sharded", "partitioned", "pipeline"})
+		String queue;
+
+		@Param({"20", "1024"})
+		int capacity;
+
+		List<Object> monitorList;
+		SharedList objList;
+		ShardedQueue shardedQueue;
+		PartitionedQueue partitionedQueue;
+		ObjectQueue ringBuffer;
+		Path mappedDirectory;
+		ObjectQueue mappedQueue;
+		Pipeline<Slot> pipeline;
+		ExecutorService pipelineWorker;
+		final AtomicLong handled = new AtomicLong(-1);
+		final AtomicLong taken = new AtomicLong(-1);
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			if("monitor".equals(queue)) {
+				monitorList = new LinkedList<>();
+			} else if("list".equals(queue)) {
+				objList = new SharedList();
+			} else if("ring".equals(queue)) {
+				ringBuffer = new RingBuffer(capacity);
+			} else if("mapped".equals(queue)) {
+				mappedDirectory = Files.createTempDirectory("handoff-benchmark");
+				mappedQueue = MappedQueue.open(mappedDirectory, MAPPED_SEGMENT_SIZE).consumerGroup("benchmark");
+			} else if("sharded".equals(queue)) {
+				shardedQueue = new ShardedQueue(4, capacity);
+			} else if("partitioned".equals(queue)) {
+				partitionedQueue = new PartitionedQueue(4, capacity);
+			} else if("pipeline".equals(queue)) {
+				// the ring size has to be a power of two
+				pipeline = new Pipeline<>(Integer.highestOneBit(capacity - 1) << 1, Slot::new, WaitStrategyType.YIELDING.create())
+						.addStage((slot, sequence) -> handled.lazySet(sequence), 1);
+				pipelineWorker = Executors.newSingleThreadExecutor();
+				pipeline.start(pipelineWorker);
+			} else {
+				throw new IllegalArgumentException("Unknown queue: " + queue);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			if(pipeline != null) {
+				pipeline.halt();
+				pipelineWorker.shutdownNow();
+			}
+			if(mappedDirectory != null) {
+				for(File file : mappedDirectory.toFile().listFiles()) {
+					Files.delete(file.toPath());
+				}
+				Files.delete(mappedDirectory);
+			}
+		}
+	}
+
+	public static class Slot {
+
+		Object obj;
+	}
+
+	@State(Scope.Thread)
+	public static class Side {
+
+		ObjectQueue view;
+		final Object[] objects = new Object[KEYS];
+		int next;
+
+		@Setup(Level.Trial)
+		public void setUp(Queues queues, ThreadParams threadParams) {
+			int index = threadParams.getSubgroupThreadIndex();
+			if(queues.shardedQueue != null) {
+				// producers and consumers get the same shard numbers, so a lone consumer steals from the rest
+				view = threadParams.getSubgroupIndex() == 0 ? queues.shardedQueue.producerView(index) : queues.shardedQueue.consumerView(index);
+			} else if(queues.partitionedQueue != null) {
+				view = threadParams.getSubgroupIndex() == 0 ? queues.partitionedQueue.producerView() : queues.partitionedQueue.consumerView();
+			} else if(queues.mappedQueue != null) {
+				view = queues.mappedQueue;
+			} else {
+				view = queues.ringBuffer;
+			}
+			for(int i=0; i<KEYS; i++) {
+				objects[i] = new KeyedObject(i, index);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			if(view != null) {
+				view.detach();
+			}
+		}
+
+		Object nextObject() {
+			Object obj = objects[next];
+			next = (next + 1) % KEYS;
+			return obj;
+		}
+	}
+
+	@Benchmark
+	@Group("p1c1")
+	@GroupThreads(1)
+	public boolean produce1x1(Queues queues, Side side, Control control) throws InterruptedException {
+		return produce(queues, side, control);
+	}
+
+	@Benchmark
+	@Group("p1c1")
+	@GroupThreads(1)
+	public Object consume1x1(Queues queues, Side side, Control control) throws InterruptedException {
+		return consume(queues, side, control);
+	}
+
+	@Benchmark
+	@Group("p4c1")
+	@GroupThreads(4)
+	public boolean produce4x1(Queues queues, Side side, Control control) throws InterruptedException {
+		return produce(queues, side, control);
+	}
+
+	@Benchmark
+	@Group("p4c1")
+	@GroupThreads(1)
+	public Object consume4x1(Queues queues, Side side, Control control) throws InterruptedException {
+		return consume(queues, side, control);
+	}
+
+	@Benchmark
+	@Group("p1c4")
+	@GroupThreads(1)
+	public boolean produce1x4(Queues queues, Side side, Control control) throws InterruptedException {
+		return produce(queues, side, control);
+	}
+
+	@Benchmark
+	@Group("p1c4")
+	@GroupThreads(4)
+	public Object consume1x4(Queues queues, Side side, Control control) throws InterruptedException {
+		return consume(queues, side, control);
+	}
+
+	@Benchmark
+	@Group("p4c4")
+	@GroupThreads(4)
+	public boolean produce4x4(Queues queues, Side side, Control control) throws InterruptedException {
+		return produce(queues, side, control);
+	}
+
+	@Benchmark
+	@Group("p4c4")
+	@GroupThreads(4)
+	public Object consume4x4(Queues queues, Side side, Control control) throws InterruptedException {
+		return consume(queues, side, control);
+	}
+
+	// Both sides give up once the measurement is over, otherwise a side whose partner
+	// has already stopped would wait forever and the iteration would never end
+	private static boolean produce(Queues queues, Side side, Control control) throws InterruptedException {
+		Object obj = side.nextObject();
+		if(queues.monitorList != null) {
+			List<Object> monitorList = queues.monitorList;
+			synchronized (monitorList) {
+				while(monitorList.size() == queues.capacity) {
+					if(control.stopMeasurement) {
+						return false;
+					}
+					monitorList.wait(1);
+				}
+				monitorList.add(obj);
+				monitorList.notifyAll();
+				return true;
+			}
+		}
+		if(queues.pipeline != null) {
+			// the stage worker keeps taking events, so next() cannot wait forever
+			long sequence = queues.pipeline.next();
+			queues.pipeline.get(sequence).obj = obj;
+			queues.pipeline.publish(sequence);
+			return true;
+		}
+		if(queues.objList != null) {
+			SharedList objList = queues.objList;
+			objList.lock();
+			try {
+				while(objList.size() == queues.capacity) {
+					if(control.stopMeasurement) {
+						return false;
+					}
+					objList.awaitNotFull(WAIT_SLICE_NS);
+				}
+				objList.add(obj);
+				objList.signalNotEmpty();
+				return true;
+			} finally {
+				objList.unlock();
+			}
+		}
+		while((queues.mappedQueue != null && side.view.size() >= queues.capacity) || !side.view.offer(obj)) {
+			if(control.stopMeasurement) {
+				return false;
+			}
+			Thread.yield();
+		}
+		return true;
+	}
+
+	private static Object consume(Queues queues, Side side, Control control) throws InterruptedException {
+		if(queues.monitorList != null) {
+			List<Object> monitorList = queues.monitorList;
+			synchronized (monitorList) {
+				while(monitorList.isEmpty()) {
+					if(control.stopMeasurement) {
+						return null;
+					}
+					monitorList.wait(1);
+				}
+				Object obj = monitorList.remove(0);
+				monitorList.notifyAll();
+				return obj;
+			}
+		}
+		if(queues.pipeline != null) {
+			long ticket = queues.taken.incrementAndGet();
+			while(queues.handled.get() < ticket) {
+				if(control.stopMeasurement) {
+					return null;
+				}
+				Thread.yield();
+			}
+			return queues.pipeline.get(ticket).obj;
+		}
+		if(queues.objList != null) {
+			SharedList objList = queues.objList;
+			objList.lock();
+			try {
+				while(objList.isEmpty()) {
+					if(control.stopMeasurement) {
+						return null;
+					}
+					objList.awaitNotEmpty(WAIT_SLICE_NS);
+				}
+				Object obj = objList.removeFirst();
+				objList.signalNotFull();
+				return obj;
+			} finally {
+				objList.unlock();
+			}
+		}
+		Object obj;
+		while((obj = side.view.poll()) == null) {
+			if(control.stopMeasurement) {
+				return null;
+			}
+			Thread.yield();
+		}
+		return obj;
+	}
+}
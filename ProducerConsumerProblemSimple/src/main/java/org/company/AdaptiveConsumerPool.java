@@ -0,0 +1,250 @@
+package org.company;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+// Elastic set of consumers on an ObjectQueue.
+//
+// Twice a second it looks at the queue occupancy and the average processing time per object.
+// When the queue is filling up, or the backlog would take longer than MAX_DRAIN_TIME to work off
+// with the current consumers, it starts enough new ones to drain it in time (up to the ceiling).
+// When the queue is almost empty it retires one consumer that has been idle for IDLE_TIMEOUT.
+public class AdaptiveConsumerPool implements ProcessingListener {
+
+	private static final long CONTROL_INTERVAL_MS = 500;
+	private static final double SCALE_UP_OCCUPANCY = 0.75;
+	private static final double SCALE_DOWN_OCCUPANCY = 0.10;
+	private static final long MAX_DRAIN_TIME_NS = TimeUnit.SECONDS.toNanos(10);
+	private static final long IDLE_TIMEOUT_NS = TimeUnit.SECONDS.toNanos(15);
+
+	private final IntFunction<ObjectQueue> consumerQueues;
+	// only for size() and capacity(), never polled
+	private final ObjectQueue sampledQueue;
+	private final WaitStrategy waitStrategy;
+	private final int batchSize;
+	private final int minConsumers;
+	private final int maxConsumers;
+	private final ExecutorService executor;
+	private final ScheduledExecutorService controller = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "AdaptiveConsumerPool-controller");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final List<Consumer> consumers = new ArrayList<>();
+	private int nextConsumerId;
+	private QueueMetrics metrics;
+
+	private final LongAdder processedObjects = new LongAdder();
+	private final LongAdder processingTimeNs = new LongAdder();
+	private long lastProcessedObjects;
+	private long lastProcessingTimeNs;
+	private long averageProcessingTimeNs;
+
+	private final AtomicLong scaleUps = new AtomicLong();
+	private final AtomicLong scaleDowns = new AtomicLong();
+	private volatile int consumerCount;
+	private volatile ResizeDecision lastDecision;
+
+	// consumerQueues gives the queue (or queue view) for the consumer with the given index
+	public AdaptiveConsumerPool(IntFunction<ObjectQueue> consumerQueues, WaitStrategy waitStrategy, int batchSize,
+			int minConsumers, int maxConsumers, ExecutorService executor) {
+		if(minConsumers < 1 || maxConsumers < minConsumers) {
+			throw new IllegalArgumentException("Invalid pool bounds: " + minConsumers + ".." + maxConsumers);
+		}
+		this.consumerQueues = consumerQueues;
+		this.sampledQueue = consumerQueues.apply(0);
+		this.waitStrategy = waitStrategy;
+		this.batchSize = batchSize;
+		this.minConsumers = minConsumers;
+		this.maxConsumers = maxConsumers;
+		this.executor = executor;
+	}
+
+	// Consumers started from now on record into metrics, and so do the pool's resize decisions
+	public void setMetrics(QueueMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public void start() {
+		synchronized (consumers) {
+			for(int i=0; i<minConsumers; i++) {
+				startConsumer();
+			}
+			consumerCount = consumers.size();
+		}
+		if(metrics != null) {
+			metrics.recordConsumerCount(consumerCount);
+		}
+		controller.scheduleWithFixedDelay(this::adjust, CONTROL_INTERVAL_MS, CONTROL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+	}
+
+	public void stop() {
+		controller.shutdownNow();
+		synchronized (consumers) {
+			consumers.forEach(Consumer::retire);
+			consumers.clear();
+			consumerCount = 0;
+		}
+		if(metrics != null) {
+			metrics.recordConsumerCount(0);
+		}
+		waitStrategy.signalAll();
+	}
+
+	@Override
+	public void objectProcessed(Consumer consumer, long processingTimeNs) {
+		processedObjects.increment();
+		this.processingTimeNs.add(processingTimeNs);
+	}
+
+	public int getConsumerCount() {
+		return consumerCount;
+	}
+
+	public long getScaleUpCount() {
+		return scaleUps.get();
+	}
+
+	public long getScaleDownCount() {
+		return scaleDowns.get();
+	}
+
+	public ResizeDecision getLastDecision() {
+		return lastDecision;
+	}
+
+	private void adjust() {
+		try {
+			resize();
+		} catch (RuntimeException e) {
+			// an exception would silently cancel the scheduled task
+			e.printStackTrace();
+		}
+	}
+
+	private void resize() {
+		int backlog = sampledQueue.size();
+		double occupancy = (double) backlog / sampledQueue.capacity();
+		updateAverageProcessingTime();
+
+		synchronized (consumers) {
+			int current = consumers.size();
+			long expectedDrainTimeNs = averageProcessingTimeNs * backlog / current;
+			if((occupancy >= SCALE_UP_OCCUPANCY || expectedDrainTimeNs > MAX_DRAIN_TIME_NS) && current < maxConsumers) {
+				long needed = averageProcessingTimeNs * backlog / MAX_DRAIN_TIME_NS + 1;
+				int target = (int) Math.min(maxConsumers, Math.max(current + 1, needed));
+				while(consumers.size() < target) {
+					startConsumer();
+				}
+				scaleUps.incrementAndGet();
+				record(current, target, occupancy, "backlog of " + backlog + " objects");
+			} else if(occupancy <= SCALE_DOWN_OCCUPANCY && current > minConsumers) {
+				Consumer idlest = idlestConsumer();
+				if(System.nanoTime() - idlest.getLastActiveNs() > IDLE_TIMEOUT_NS) {
+					consumers.remove(idlest);
+					idlest.retire();
+					waitStrategy.signalAll();
+					scaleDowns.incrementAndGet();
+					record(current, current - 1, occupancy, idlest.getName() + " idle");
+				}
+			}
+			consumerCount = consumers.size();
+		}
+	}
+
+	private void updateAverageProcessingTime() {
+		long processed = processedObjects.sum();
+		long time = processingTimeNs.sum();
+		if(processed > lastProcessedObjects) {
+			averageProcessingTimeNs = (time - lastProcessingTimeNs) / (processed - lastProcessedObjects);
+		}
+		lastProcessedObjects = processed;
+		lastProcessingTimeNs = time;
+	}
+
+	private Consumer idlestConsumer() {
+		Consumer idlest = consumers.get(0);
+		for(Consumer consumer : consumers) {
+			if(consumer.getLastActiveNs() < idlest.getLastActiveNs()) {
+				idlest = consumer;
+			}
+		}
+		return idlest;
+	}
+
+	private void startConsumer() {
+		int id = nextConsumerId++;
+		Consumer consumer = new Consumer("AdaptiveCons_" + id, consumerQueues.apply(id), waitStrategy, batchSize);
+		consumer.setProcessingListener(this);
+		consumer.setMetrics(metrics);
+		consumers.add(consumer);
+		executor.execute(consumer);
+	}
+
+	private void record(int from, int to, double occupancy, String reason) {
+		lastDecision = new ResizeDecision(System.currentTimeMillis(), from, to, occupancy, averageProcessingTimeNs, reason);
+		AsyncLog.log("Consumer pool resized: " + lastDecision);
+		if(metrics != null) {
+			metrics.recordResize(lastDecision);
+		}
+	}
+
+	public static class ResizeDecision {
+
+		private final long timestampMs;
+		private final int fromConsumers;
+		private final int toConsumers;
+		private final double occupancy;
+		private final long averageProcessingTimeNs;
+		private final String reason;
+
+		ResizeDecision(long timestampMs, int fromConsumers, int toConsumers, double occupancy,
+				long averageProcessingTimeNs, String reason) {
+			this.timestampMs = timestampMs;
+			this.fromConsumers = fromConsumers;
+			this.toConsumers = toConsumers;
+			this.occupancy = occupancy;
+			this.averageProcessingTimeNs = averageProcessingTimeNs;
+			this.reason = reason;
+		}
+
+		public long getTimestampMs() {
+			return timestampMs;
+		}
+
+		public int getFromConsumers() {
+			return fromConsumers;
+		}
+
+		public int getToConsumers() {
+			return toConsumers;
+		}
+
+		public double getOccupancy() {
+			return occupancy;
+		}
+
+		public long getAverageProcessingTimeNs() {
+			return averageProcessingTimeNs;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+
+		@Override
+		public String toString() {
+			return fromConsumers + " -> " + toConsumers + " consumers (" + reason +
+					", occupancy " + String.format("%.2f", occupancy) +
+					", avg processing " + TimeUnit.NANOSECONDS.toMillis(averageProcessingTimeNs) + " ms)";
+		}
+	}
+}
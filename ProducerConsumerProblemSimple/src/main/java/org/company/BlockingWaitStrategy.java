@@ -0,0 +1,39 @@
+package org.company;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+// Same behaviour as wait()/notifyAll() on the list: no CPU used while waiting,
+// but every handoff pays for a lock round-trip and a wakeup
+public class BlockingWaitStrategy implements WaitStrategy {
+
+	private final Lock lock = new ReentrantLock();
+	private final Condition stateChanged = lock.newCondition();
+
+	@Override
+	public void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		if(condition.getAsBoolean()) {
+			return;
+		}
+		lock.lockInterruptibly();
+		try {
+			while(!condition.getAsBoolean()) {
+				stateChanged.await();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void signalAll() {
+		lock.lock();
+		try {
+			stateChanged.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+}
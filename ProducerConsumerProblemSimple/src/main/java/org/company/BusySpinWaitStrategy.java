@@ -0,0 +1,20 @@
+package org.company;
+
+import java.util.function.BooleanSupplier;
+
+// Lowest latency, burns a whole core per waiting thread
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+	@Override
+	public void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		while(!condition.getAsBoolean()) {
+			if(Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+	}
+
+	@Override
+	public void signalAll() {
+	}
+}
@@ -1,59 +1,321 @@
 package org.company;
 
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
 
-public class Consumer extends Thread {
+public class Consumer implements Runnable {
 
 	private static final int MAX_PROCESS_TIME_SEC = 10;
 
-	private List<Object> objList;
+	private final String name;
+	private SharedList objList;
+	private ObjectQueue queue;
+	private WaitStrategy waitStrategy;
+	private volatile boolean retired;
+	private volatile long lastActiveNs = System.nanoTime();
+	private ProcessingListener processingListener;
+	private int logInterval = 1;
+	private long consumed;
+	private boolean simulateWork = true;
+	private QueueMetrics metrics;
+	private QueueMetrics.Recorder recorder;
+	private Object polled;
+	private final BooleanSupplier pollOnce = () -> (polled = poll()) != null || retired;
 
-	public Consumer(String name, List<Object> objList) {
-		setName(name);
+	private final int batchSize;
+	private final Object[] batch;
+	private int drained;
+	private final BooleanSupplier drainBatch;
+
+	public Consumer(String name, SharedList objList) {
+		this(name, objList, 1);
+	}
+
+	public Consumer(String name, SharedList objList, int batchSize) {
+		this(name, batchSize);
+		this.objList = objList;
+	}
+
+	// Waits on the list through waitStrategy instead of the list's conditions
+	public Consumer(String name, SharedList objList, WaitStrategy waitStrategy, int batchSize) {
+		this(name, batchSize);
 		this.objList = objList;
+		this.waitStrategy = waitStrategy;
+	}
+
+	public Consumer(String name, ObjectQueue queue, WaitStrategy waitStrategy) {
+		this(name, queue, waitStrategy, 1);
+	}
+
+	public Consumer(String name, ObjectQueue queue, WaitStrategy waitStrategy, int batchSize) {
+		this(name, batchSize);
+		this.queue = queue;
+		this.waitStrategy = waitStrategy;
+	}
+
+	private Consumer(String name, int batchSize) {
+		if(batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		this.name = name;
+		this.batchSize = batchSize;
+		this.batch = new Object[batchSize];
+		this.drainBatch = () -> (drained = drainTo(batch, batchSize)) > 0 || retired;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setMetrics(QueueMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public void setProcessingListener(ProcessingListener processingListener) {
+		this.processingListener = processingListener;
+	}
+
+	// Logs only every logInterval-th object or batch, see Producer.setLogInterval
+	public void setLogInterval(int logInterval) {
+		if(logInterval < 1) {
+			throw new IllegalArgumentException("Log interval must be positive: " + logInterval);
+		}
+		this.logInterval = logInterval;
+	}
+
+	// false skips the random processing time, for benchmarks of the bare loop
+	public void setSimulateWork(boolean simulateWork) {
+		this.simulateWork = simulateWork;
+	}
+
+	// Asks a consumer with a wait strategy to finish the objects it holds and stop. A consumer waiting
+	// for objects notices it once the wait strategy is signalled.
+	public void retire() {
+		retired = true;
+	}
+
+	public long getLastActiveNs() {
+		return lastActiveNs;
 	}
 
 	@Override
 	public void run() {
+		if(metrics != null) {
+			recorder = metrics.newRecorder();
+		}
+		try {
+			if(waitStrategy != null) {
+				if(batchSize > 1) {
+					runWithWaitStrategyInBatches();
+				} else {
+					runWithWaitStrategy();
+				}
+			} else {
+				if(batchSize > 1) {
+					runOnListInBatches();
+				} else {
+					runOnList();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			if(queue != null) {
+				queue.detach();
+			}
+			if(waitStrategy != null) {
+				waitStrategy.signalAll();
+			}
+			if(recorder != null) {
+				metrics.retire(recorder);
+			}
+		}
+	}
+
+	private void runOnList() throws InterruptedException {
 		while(true) {
 			Object obj = null;
-			synchronized (objList) {
+			int size;
+			objList.lock();
+			try {
 				waitUntilConsumptionPossible();
-				obj = objList.remove(0);
-				objList.notifyAll();
-				logConsumptionMade(obj);
+				obj = objList.removeFirst();
+				recordHandoff(obj);
+				objList.signalNotFull();
+				size = objList.size();
+			} finally {
+				objList.unlock();
 			}
+			logConsumptionMade(obj, size);
 			processObject(obj);
 		}
 	}
 
-	private void waitUntilConsumptionPossible() {
-		while(objList.isEmpty()) {
+	// Takes everything that is available (up to batchSize) in one critical section
+	// and wakes producers once for the whole batch
+	private void runOnListInBatches() throws InterruptedException {
+		while(true) {
+			int count;
+			int size;
+			objList.lock();
 			try {
-				objList.wait();
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+				waitUntilConsumptionPossible();
+				count = Math.min(batchSize, objList.size());
+				for(int i=0; i<count; i++) {
+					batch[i] = objList.removeFirst();
+					recordHandoff(batch[i]);
+				}
+				objList.signalAllNotFull();
+				size = objList.size();
+			} finally {
+				objList.unlock();
+			}
+			logBatchConsumed(count, size);
+			processBatch(count);
+		}
+	}
+
+	private void runWithWaitStrategy() throws InterruptedException {
+		while(!retired) {
+			long waitStart = recorder != null ? System.nanoTime() : 0;
+			waitStrategy.waitUntil(pollOnce);
+			recordConsumptionWait(waitStart);
+			Object obj = polled;
+			polled = null;
+			if(obj == null) {
+				return;
+			}
+			recordHandoff(obj);
+			waitStrategy.signalAll();
+			logConsumptionMade(obj, size());
+			processObject(obj);
+		}
+	}
+
+	private void runWithWaitStrategyInBatches() throws InterruptedException {
+		while(!retired) {
+			long waitStart = recorder != null ? System.nanoTime() : 0;
+			waitStrategy.waitUntil(drainBatch);
+			recordConsumptionWait(waitStart);
+			if(drained == 0) {
+				return;
 			}
+			for(int i=0; i<drained; i++) {
+				recordHandoff(batch[i]);
+			}
+			waitStrategy.signalAll();
+			logBatchConsumed(drained, size());
+			processBatch(drained);
+		}
+	}
+
+	// The list is checked and emptied in one critical section, the wait strategy retries when it is empty
+	private Object poll() {
+		if(queue != null) {
+			return queue.poll();
+		}
+		objList.lock();
+		try {
+			return objList.isEmpty() ? null : objList.removeFirst();
+		} finally {
+			objList.unlock();
+		}
+	}
+
+	private int drainTo(Object[] batch, int maxItems) {
+		if(queue != null) {
+			return queue.drainTo(batch, maxItems);
+		}
+		objList.lock();
+		try {
+			int count = Math.min(maxItems, objList.size());
+			for(int i=0; i<count; i++) {
+				batch[i] = objList.removeFirst();
+			}
+			return count;
+		} finally {
+			objList.unlock();
+		}
+	}
+
+	private int size() {
+		if(queue != null) {
+			return queue.size();
+		}
+		objList.lock();
+		try {
+			return objList.size();
+		} finally {
+			objList.unlock();
 		}
 	}
 
-	private void processObject(Object obj) {
+	private void waitUntilConsumptionPossible() throws InterruptedException {
+		long waitStart = recorder != null ? System.nanoTime() : 0;
+		while(objList.isEmpty()) {
+			objList.awaitNotEmpty();
+		}
+		recordConsumptionWait(waitStart);
+	}
+
+	private void recordConsumptionWait(long waitStart) {
+		if(recorder != null) {
+			recorder.recordConsumptionWait(System.nanoTime() - waitStart);
+		}
+	}
+
+	// Objects read back from a MappedQueue are Strings and carry no enqueue time
+	private void recordHandoff(Object item) {
+		if(recorder != null) {
+			Object value = item instanceof KeyedObject ? ((KeyedObject) item).getValue() : item;
+			if(value instanceof Payload && ((Payload) value).enqueuedNs != 0) {
+				recorder.recordHandoffLatency(System.nanoTime() - ((Payload) value).enqueuedNs);
+			}
+		}
+	}
+
+	private void processBatch(int count) throws InterruptedException {
+		for(int i=0; i<count; i++) {
+			processObject(batch[i]);
+			batch[i] = null;
+		}
+	}
+
+	private void processObject(Object obj) throws InterruptedException {
+		long start = System.nanoTime();
 		//doing something with obj
 		waitRandomTime();
+		lastActiveNs = System.nanoTime();
+		if(processingListener != null) {
+			processingListener.objectProcessed(this, lastActiveNs - start);
+		}
+		Object value = obj instanceof KeyedObject ? ((KeyedObject) obj).getValue() : obj;
+		if(value instanceof Payload) {
+			((Payload) value).release();
+		}
 	}
 
-	private void logConsumptionMade(Object obj) {
-		System.out.println("Consumer " + getName() + " has just consumed object " + obj +
-		". Current list size " + objList.size());
+	// Logged outside the lock, like in Producer
+	private void logConsumptionMade(Object obj, int size) {
+		if(++consumed % logInterval != 0) {
+			return;
+		}
+		AsyncLog.log("Consumer " + getName() + " has just consumed object " + obj +
+		". Current list size " + size);
 	}
 
-	private void waitRandomTime() {
-		Random rand = new Random();
-		try {
-			Thread.sleep(rand.nextInt(MAX_PROCESS_TIME_SEC * 1000));
-		} catch (InterruptedException e) {
-			e.printStackTrace();
+	private void logBatchConsumed(int count, int size) {
+		if(++consumed % logInterval != 0) {
+			return;
+		}
+		AsyncLog.log("Consumer " + getName() + " has just consumed " + count + " objects" +
+		". Current list size " + size);
+	}
+
+	private void waitRandomTime() throws InterruptedException {
+		if(!simulateWork) {
+			return;
 		}
+		Thread.sleep(ThreadLocalRandom.current().nextInt(MAX_PROCESS_TIME_SEC * 1000));
 	}
 }
@@ -0,0 +1,8 @@
+package org.company;
+
+// One step of a Pipeline. The event is owned by the handler only for the duration
+// of the call, it is reused for a later sequence afterwards.
+public interface EventHandler<E> {
+
+	void onEvent(E event, long sequence);
+}
@@ -0,0 +1,81 @@
+package org.company;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+// Measures producer -> consumer handoff latency through the RingBuffer for every wait strategy.
+// usage: HandoffLatencyBenchmark [strategy...]
+public class HandoffLatencyBenchmark {
+
+	private static final int WARMUP_ITEMS = 20_000;
+	private static final int MEASURED_ITEMS = 100_000;
+	private static final long PAUSE_BETWEEN_ITEMS_NS = 10_000;
+
+	public static void main(String[] args) throws InterruptedException {
+		WaitStrategyType[] types = WaitStrategyType.values();
+		if(args.length > 0) {
+			types = new WaitStrategyType[args.length];
+			for(int i=0; i<args.length; i++) {
+				types[i] = WaitStrategyType.fromName(args[i]);
+			}
+		}
+		for(WaitStrategyType type : types) {
+			long[] latencies = measure(type.create());
+			printSummary(type, latencies);
+		}
+	}
+
+	private static long[] measure(WaitStrategy waitStrategy) throws InterruptedException {
+		int totalItems = WARMUP_ITEMS + MEASURED_ITEMS;
+		ObjectQueue queue = new RingBuffer(Producer.LIST_CAPACITY);
+		long[] latencies = new long[MEASURED_ITEMS];
+		long[] sendTimes = new long[totalItems];
+
+		Thread consumer = new Thread(() -> {
+			Object[] received = new Object[1];
+			try {
+				for(int i=0; i<totalItems; i++) {
+					waitStrategy.waitUntil(() -> (received[0] = queue.poll()) != null);
+					long now = System.nanoTime();
+					waitStrategy.signalAll();
+					int index = (Integer) received[0];
+					if(index >= WARMUP_ITEMS) {
+						latencies[index - WARMUP_ITEMS] = now - sendTimes[index];
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		consumer.start();
+
+		for(int i=0; i<totalItems; i++) {
+			Integer item = i;
+			sendTimes[i] = System.nanoTime();
+			waitStrategy.waitUntil(() -> queue.offer(item));
+			waitStrategy.signalAll();
+			pause();
+		}
+		consumer.join();
+		return latencies;
+	}
+
+	private static void pause() {
+		long deadline = System.nanoTime() + PAUSE_BETWEEN_ITEMS_NS;
+		while(System.nanoTime() < deadline) {
+			LockSupport.parkNanos(PAUSE_BETWEEN_ITEMS_NS / 10);
+		}
+	}
+
+	private static void printSummary(WaitStrategyType type, long[] latencies) {
+		Arrays.sort(latencies);
+		System.out.println(String.format("%-10s handoff latency ns: p50=%d p99=%d p99.9=%d max=%d",
+				type, percentile(latencies, 50), percentile(latencies, 99),
+				percentile(latencies, 99.9), latencies[latencies.length - 1]));
+	}
+
+	private static long percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+}
@@ -0,0 +1,27 @@
+package org.company;
+
+// Object that belongs to an entity. A PartitionedQueue hands all objects with
+// the same key to one consumer at a time, in the order they were offered.
+public class KeyedObject {
+
+	private final Object key;
+	private final Object value;
+
+	public KeyedObject(Object key, Object value) {
+		this.key = key;
+		this.value = value;
+	}
+
+	public Object getKey() {
+		return key;
+	}
+
+	public Object getValue() {
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return key + ":" + value;
+	}
+}
@@ -0,0 +1,344 @@
+package org.company;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Durable queue kept in memory-mapped segment files.
+//
+// Every record is [int recordLength][UTF-8 bytes of obj.toString()], where recordLength
+// includes the 4 header bytes. The header is written after the payload, so a zero
+// header always means "nothing written here yet". A record never spans two segments,
+// -1 marks the rest of a segment as unused.
+//
+// Producers share one append cursor. Every consumer group has its own read offset
+// which is committed to a small mapped file on each poll, so a restarted process
+// continues from the last committed record.
+//
+// Segments below every group's read offset are deleted and unmapped. Mapping and releasing
+// segments is serialized by segmentLock, and a released index is never mapped again.
+public class MappedQueue {
+
+	private static final int HEADER_SIZE = 4;
+	private static final int END_OF_SEGMENT = -1;
+	private static final long NO_RECORD = -1;
+	private static final String SEGMENT_SUFFIX = ".segment";
+	private static final String OFFSET_SUFFIX = ".offset";
+
+	private final Path directory;
+	private final int segmentSize;
+	private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+	private final Map<String, ConsumerGroup> groups = new ConcurrentHashMap<>();
+	private final ReentrantLock segmentLock = new ReentrantLock();
+	// every segment below it has been released, guarded by segmentLock
+	private long firstLiveSegment;
+
+	private final ReentrantLock appendLock = new ReentrantLock();
+	private long appendOffset;
+	private final AtomicLong publishedOffset = new AtomicLong();
+	private final AtomicLong appendedRecords = new AtomicLong();
+
+	private MappedQueue(Path directory, int segmentSize) {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+	}
+
+	public static MappedQueue open(Path directory, int segmentSize) throws IOException {
+		if(segmentSize <= HEADER_SIZE) {
+			throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+		}
+		Files.createDirectories(directory);
+		MappedQueue queue = new MappedQueue(directory, segmentSize);
+		queue.recover();
+		return queue;
+	}
+
+	// A new group scans its unread records and is registered while both locks are held,
+	// so no segment it reads is released before releaseConsumedSegments() can see the group
+	public ConsumerGroup consumerGroup(String name) {
+		appendLock.lock();
+		segmentLock.lock();
+		try {
+			return groups.computeIfAbsent(name, ConsumerGroup::new);
+		} finally {
+			segmentLock.unlock();
+			appendLock.unlock();
+		}
+	}
+
+	public void append(Object obj) {
+		byte[] payload = obj.toString().getBytes(StandardCharsets.UTF_8);
+		int recordLength = HEADER_SIZE + payload.length;
+		if(recordLength > segmentSize) {
+			throw new IllegalArgumentException("Record of " + recordLength + " bytes does not fit in a segment");
+		}
+		appendLock.lock();
+		try {
+			int position = positionOf(appendOffset);
+			if(position + recordLength > segmentSize) {
+				if(position + HEADER_SIZE <= segmentSize) {
+					segment(segmentOf(appendOffset)).putInt(position, END_OF_SEGMENT);
+				}
+				appendOffset = nextSegmentStart(appendOffset);
+				position = 0;
+			}
+			ByteBuffer segment = segment(segmentOf(appendOffset)).duplicate();
+			segment.position(position + HEADER_SIZE);
+			segment.put(payload);
+			segment.putInt(position, recordLength);
+			appendOffset += recordLength;
+			publishedOffset.set(appendOffset);
+			appendedRecords.incrementAndGet();
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	// Flushes everything appended so far to the storage device
+	public void force() {
+		segmentLock.lock();
+		try {
+			for(MappedByteBuffer segment : segments.values()) {
+				segment.force();
+			}
+		} finally {
+			segmentLock.unlock();
+		}
+	}
+
+	private void recover() throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+			for(Path file : files) {
+				String name = file.getFileName().toString();
+				segment(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+			}
+		}
+		long firstOffset = segments.isEmpty() ? 0 : segments.firstKey() * segmentSize;
+		long records = 0;
+		long offset = firstOffset;
+		long record;
+		while((record = nextRecord(offset, Long.MAX_VALUE)) != NO_RECORD) {
+			offset = record + recordLengthAt(record);
+			records++;
+		}
+		appendOffset = offset;
+		publishedOffset.set(offset);
+		appendedRecords.set(records);
+	}
+
+	// Offset of the first record at or after offset and before limit, skipping unused segment tails
+	private long nextRecord(long offset, long limit) {
+		long current = offset;
+		while(current < limit) {
+			long segmentIndex = segmentOf(current);
+			if(!segments.containsKey(segmentIndex)) {
+				return NO_RECORD;
+			}
+			int position = positionOf(current);
+			int header = position + HEADER_SIZE <= segmentSize ? segment(segmentIndex).getInt(position) : END_OF_SEGMENT;
+			if(header == END_OF_SEGMENT) {
+				current = nextSegmentStart(current);
+			} else if(header == 0) {
+				return NO_RECORD;
+			} else {
+				return current;
+			}
+		}
+		return NO_RECORD;
+	}
+
+	private int recordLengthAt(long offset) {
+		return segment(segmentOf(offset)).getInt(positionOf(offset));
+	}
+
+	private MappedByteBuffer segment(long index) {
+		MappedByteBuffer segment = segments.get(index);
+		if(segment != null) {
+			return segment;
+		}
+		segmentLock.lock();
+		try {
+			if(index < firstLiveSegment) {
+				throw new IllegalStateException("Segment " + index + " has already been released");
+			}
+			return segments.computeIfAbsent(index, i -> map(segmentFile(i), segmentSize));
+		} finally {
+			segmentLock.unlock();
+		}
+	}
+
+	private void releaseConsumedSegments() {
+		segmentLock.lock();
+		try {
+			long lowestInUse = segmentOf(publishedOffset.get());
+			for(ConsumerGroup group : groups.values()) {
+				lowestInUse = Math.min(lowestInUse, segmentOf(group.committedOffset()));
+			}
+			firstLiveSegment = Math.max(firstLiveSegment, lowestInUse);
+			for(Long index : segments.headMap(firstLiveSegment).keySet()) {
+				unmap(segments.remove(index));
+				try {
+					Files.deleteIfExists(segmentFile(index));
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		} finally {
+			segmentLock.unlock();
+		}
+	}
+
+	private Path segmentFile(long index) {
+		return directory.resolve(String.format("%016d%s", index, SEGMENT_SUFFIX));
+	}
+
+	private long segmentOf(long offset) {
+		return offset / segmentSize;
+	}
+
+	private int positionOf(long offset) {
+		return (int) (offset % segmentSize);
+	}
+
+	private long nextSegmentStart(long offset) {
+		return (segmentOf(offset) + 1) * segmentSize;
+	}
+
+	// Frees the mapping now instead of whenever the buffer is collected. Only called for segments
+	// below every read offset, which no thread reads any more. If the JDK offers neither
+	// Unsafe.invokeCleaner (Java 9+) nor the buffer's cleaner (Java 8), the collector unmaps it.
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+		} catch (NoSuchMethodException e) {
+			try {
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				cleaner.getClass().getMethod("clean").invoke(cleaner);
+			} catch (ReflectiveOperationException | RuntimeException ignored) {
+				// left to the garbage collector
+			}
+		} catch (ReflectiveOperationException | RuntimeException ignored) {
+			// left to the garbage collector
+		}
+	}
+
+	private static MappedByteBuffer map(Path file, int size) {
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// Consumers of one group share its read offset, every group sees every record.
+	// Offering through a group appends to the underlying queue.
+	public class ConsumerGroup implements ObjectQueue {
+
+		private final MappedByteBuffer offsetFile;
+		private final ReentrantLock readLock = new ReentrantLock();
+		private volatile long readOffset;
+		private volatile long consumedRecords;
+
+		// called by consumerGroup() with appendLock and segmentLock held
+		private ConsumerGroup(String name) {
+			offsetFile = map(directory.resolve(name + OFFSET_SUFFIX), Long.BYTES);
+			long firstSegment = Math.max(segments.isEmpty() ? 0 : segments.firstKey(), firstLiveSegment);
+			readOffset = Math.max(offsetFile.getLong(0), firstSegment * segmentSize);
+
+			long unread = 0;
+			long offset = readOffset;
+			long limit = publishedOffset.get();
+			long record;
+			while((record = nextRecord(offset, limit)) != NO_RECORD) {
+				offset = record + recordLengthAt(record);
+				unread++;
+			}
+			consumedRecords = appendedRecords.get() - unread;
+		}
+
+		@Override
+		public boolean offer(Object obj) {
+			append(obj);
+			return true;
+		}
+
+		@Override
+		public Object poll() {
+			readLock.lock();
+			try {
+				long limit = publishedOffset.get();
+				long offset = nextRecord(readOffset, limit);
+				if(offset == NO_RECORD) {
+					return null;
+				}
+				ByteBuffer segment = segment(segmentOf(offset)).duplicate();
+				int position = positionOf(offset);
+				int recordLength = segment.getInt(position);
+				byte[] payload = new byte[recordLength - HEADER_SIZE];
+				segment.position(position + HEADER_SIZE);
+				segment.get(payload);
+
+				boolean segmentChanged = segmentOf(offset) != segmentOf(readOffset);
+				commit(offset + recordLength);
+				if(segmentChanged) {
+					releaseConsumedSegments();
+				}
+				return new String(payload, StandardCharsets.UTF_8);
+			} finally {
+				readLock.unlock();
+			}
+		}
+
+		@Override
+		public int drainTo(Object[] batch, int maxItems) {
+			int limit = Math.min(maxItems, batch.length);
+			int count = 0;
+			Object obj;
+			while(count < limit && (obj = poll()) != null) {
+				batch[count++] = obj;
+			}
+			return count;
+		}
+
+		@Override
+		public int size() {
+			return (int) Math.min(Integer.MAX_VALUE, appendedRecords.get() - consumedRecords);
+		}
+
+		// Bounded only by disk space
+		@Override
+		public int capacity() {
+			return Integer.MAX_VALUE;
+		}
+
+		long committedOffset() {
+			return readOffset;
+		}
+
+		private void commit(long offset) {
+			readOffset = offset;
+			consumedRecords++;
+			offsetFile.putLong(0, offset);
+		}
+	}
+}
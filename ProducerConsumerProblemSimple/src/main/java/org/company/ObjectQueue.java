@@ -0,0 +1,14 @@
+package org.company;
+
+public interface ObjectQueue {
+
+	boolean offer(Object obj);
+	Object poll();
+	// moves up to maxItems available objects into batch, returns how many were moved
+	int drainTo(Object[] batch, int maxItems);
+	int size();
+	int capacity();
+	// called by a consumer that stops taking objects from this queue
+	default void detach() {
+	}
+}
@@ -0,0 +1,44 @@
+package org.company;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+// Keeps hot counters on their own cache line so producers and consumers don't false-share.
+// Fields of a superclass are laid out before those of its subclass, so value sits between the
+// padding of PaddedAtomicLongLhs and of PaddedAtomicLong, whatever is allocated next to it.
+class PaddedAtomicLong extends PaddedAtomicLongValue {
+
+	private static final AtomicLongFieldUpdater<PaddedAtomicLongValue> VALUE =
+			AtomicLongFieldUpdater.newUpdater(PaddedAtomicLongValue.class, "value");
+
+	long q1, q2, q3, q4, q5, q6, q7;
+
+	PaddedAtomicLong(long initialValue) {
+		value = initialValue;
+	}
+
+	long get() {
+		return value;
+	}
+
+	void set(long newValue) {
+		value = newValue;
+	}
+
+	boolean compareAndSet(long expect, long update) {
+		return VALUE.compareAndSet(this, expect, update);
+	}
+
+	long incrementAndGet() {
+		return VALUE.incrementAndGet(this);
+	}
+}
+
+class PaddedAtomicLongLhs {
+
+	long p1, p2, p3, p4, p5, p6, p7;
+}
+
+class PaddedAtomicLongValue extends PaddedAtomicLongLhs {
+
+	volatile long value;
+}
@@ -0,0 +1,38 @@
+package org.company;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+// Spins, then yields, then parks with exponentially growing timeouts
+public class ParkingWaitStrategy implements WaitStrategy {
+
+	private static final int SPIN_TRIES = 100;
+	private static final int YIELD_TRIES = 100;
+	private static final long MIN_PARK_NS = TimeUnit.MICROSECONDS.toNanos(1);
+	private static final long MAX_PARK_NS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Override
+	public void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		int counter = SPIN_TRIES + YIELD_TRIES;
+		long parkNs = MIN_PARK_NS;
+		while(!condition.getAsBoolean()) {
+			if(Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			if(counter > YIELD_TRIES) {
+				counter--;
+			} else if(counter > 0) {
+				counter--;
+				Thread.yield();
+			} else {
+				LockSupport.parkNanos(parkNs);
+				parkNs = Math.min(parkNs * 2, MAX_PARK_NS);
+			}
+		}
+	}
+
+	@Override
+	public void signalAll() {
+	}
+}
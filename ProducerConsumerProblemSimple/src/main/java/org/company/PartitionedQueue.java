@@ -0,0 +1,209 @@
+package org.company;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Routes objects by the hash of their key to one of N ordered lanes.
+//
+// Every lane is assigned to exactly one attached consumer, and a consumer only takes from a lane
+// after the consumer that took from it before has asked for more objects (that is, has finished
+// processing what it took). Objects with the same key are therefore processed one at a time and
+// in the order they were offered, while different lanes are processed in parallel.
+// A consumer view attaches on its first poll and lanes are reassigned round-robin every time
+// a consumer attaches or detaches.
+//
+// A consumer waiting for a lane that is held or assigned to someone else is not woken by an offer
+// when the lane is full, so the queue signals the wait strategy itself whenever a lane with
+// objects in it is let go or reassigned.
+public class PartitionedQueue {
+
+	private final Lane[] lanes;
+	private final int capacity;
+	private final WaitStrategy waitStrategy;
+	private final List<View> attached = new ArrayList<>();
+
+	// For consumers that poll without a wait strategy
+	public PartitionedQueue(int numLanes, int capacity) {
+		this(numLanes, capacity, null);
+	}
+
+	// waitStrategy is the one shared by the producers and consumers of this queue
+	public PartitionedQueue(int numLanes, int capacity, WaitStrategy waitStrategy) {
+		if(numLanes < 1 || capacity < numLanes) {
+			throw new IllegalArgumentException("Need at least one slot per lane: " + numLanes + " lanes, capacity " + capacity);
+		}
+		this.capacity = capacity;
+		this.waitStrategy = waitStrategy;
+		this.lanes = new Lane[numLanes];
+		for(int i=0; i<numLanes; i++) {
+			lanes[i] = new Lane(capacity / numLanes + (i < capacity % numLanes ? 1 : 0));
+		}
+	}
+
+	public ObjectQueue producerView() {
+		return new View();
+	}
+
+	public ObjectQueue consumerView() {
+		return new View();
+	}
+
+	public int size() {
+		int size = 0;
+		for(Lane lane : lanes) {
+			size += lane.objects.size();
+		}
+		return size;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public int laneCount() {
+		return lanes.length;
+	}
+
+	public int attachedConsumers() {
+		synchronized (attached) {
+			return attached.size();
+		}
+	}
+
+	// A full lane is not bypassed, that would break the ordering of its keys
+	private boolean offer(Object obj) {
+		return lanes[laneOf(keyOf(obj))].objects.offer(obj);
+	}
+
+	private int laneOf(Object key) {
+		int hash = key == null ? 0 : key.hashCode();
+		hash ^= hash >>> 16;
+		return (hash & Integer.MAX_VALUE) % lanes.length;
+	}
+
+	private static Object keyOf(Object obj) {
+		return obj instanceof KeyedObject ? ((KeyedObject) obj).getKey() : obj;
+	}
+
+	private void attach(View view) {
+		synchronized (attached) {
+			attached.add(view);
+			rebalance();
+		}
+	}
+
+	private void detach(View view) {
+		synchronized (attached) {
+			if(attached.remove(view)) {
+				rebalance();
+			}
+		}
+	}
+
+	private void rebalance() {
+		boolean pending = false;
+		for(int i=0; i<lanes.length; i++) {
+			lanes[i].assignee = attached.isEmpty() ? null : attached.get(i % attached.size());
+			pending |= lanes[i].objects.size() > 0;
+		}
+		if(pending) {
+			signalConsumers();
+		}
+	}
+
+	private void signalConsumers() {
+		if(waitStrategy != null) {
+			waitStrategy.signalAll();
+		}
+	}
+
+	private class View implements ObjectQueue {
+
+		private final Object[] single = new Object[1];
+		private boolean attachedToQueue;
+		private Lane held;
+		private int nextLane;
+
+		@Override
+		public boolean offer(Object obj) {
+			return PartitionedQueue.this.offer(obj);
+		}
+
+		@Override
+		public Object poll() {
+			if(drainTo(single, 1) == 0) {
+				return null;
+			}
+			Object obj = single[0];
+			single[0] = null;
+			return obj;
+		}
+
+		// Asking for more objects means the previous ones are processed, so the lane is let go first
+		@Override
+		public int drainTo(Object[] batch, int maxItems) {
+			releaseHeldLane();
+			if(!attachedToQueue) {
+				attachedToQueue = true;
+				attach(this);
+			}
+			for(int i=0; i<lanes.length; i++) {
+				Lane lane = lanes[(nextLane + i) % lanes.length];
+				if(lane.assignee != this || lane.objects.size() == 0 || !lane.holder.compareAndSet(null, this)) {
+					continue;
+				}
+				int count = lane.objects.drainTo(batch, maxItems);
+				if(count > 0) {
+					held = lane;
+					nextLane = (nextLane + i + 1) % lanes.length;
+					return count;
+				}
+				lane.holder.set(null);
+			}
+			return 0;
+		}
+
+		@Override
+		public int size() {
+			return PartitionedQueue.this.size();
+		}
+
+		@Override
+		public int capacity() {
+			return capacity;
+		}
+
+		@Override
+		public void detach() {
+			releaseHeldLane();
+			if(attachedToQueue) {
+				attachedToQueue = false;
+				PartitionedQueue.this.detach(this);
+			}
+		}
+
+		// The lane may have been reassigned while it was held, its new assignee can take it now
+		private void releaseHeldLane() {
+			if(held != null) {
+				Lane released = held;
+				held = null;
+				released.holder.set(null);
+				if(released.objects.size() > 0) {
+					signalConsumers();
+				}
+			}
+		}
+	}
+
+	private static class Lane {
+
+		private final RingBuffer objects;
+		private final AtomicReference<View> holder = new AtomicReference<>();
+		private volatile View assignee;
+
+		Lane(int capacity) {
+			this.objects = new RingBuffer(capacity);
+		}
+	}
+}
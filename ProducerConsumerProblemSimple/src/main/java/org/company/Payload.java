@@ -0,0 +1,52 @@
+package org.company;
+
+import java.util.Random;
+
+// Reusable object handed from producers to consumers when payloads are pooled.
+// The characters are overwritten in place, so producing one allocates nothing.
+// toString() still creates a String, it is only meant for logging.
+// With metrics enabled producers use unpooled payloads instead of Strings, so the enqueue
+// time travels in the object itself.
+public class Payload {
+
+	static final int LENGTH = 5;
+
+	private final PayloadPool pool;
+	private final char[] chars = new char[LENGTH];
+	long enqueuedNs;
+
+	Payload(PayloadPool pool) {
+		this.pool = pool;
+	}
+
+	static Payload unpooled() {
+		return new Payload(null);
+	}
+
+	void fill(Random random) {
+		for(int i=0; i<LENGTH; i++) {
+			chars[i] = (char)(random.nextInt(26) + 'a');
+		}
+		enqueuedNs = 0;
+	}
+
+	public char charAt(int index) {
+		return chars[index];
+	}
+
+	public int length() {
+		return LENGTH;
+	}
+
+	// Gives the payload back to its pool, it must not be used afterwards
+	public void release() {
+		if(pool != null) {
+			pool.release(this);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return new String(chars);
+	}
+}
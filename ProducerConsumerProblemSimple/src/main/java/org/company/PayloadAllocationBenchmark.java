@@ -0,0 +1,116 @@
+package org.company;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+// Measures how many bytes the real Producer and Consumer threads allocate per object on a
+// RingBuffer with their simulated work switched off: once with String payloads, logged on every
+// object like the demo does, and once with pooled payloads, logged one object in
+// ProducerConsumerDemo.POOLED_LOG_INTERVAL. Only the sampled log lines may allocate in pooled mode.
+// The log lines go to stdout and the results to stderr, so run it with >/dev/null.
+// usage: PayloadAllocationBenchmark [objects]
+public class PayloadAllocationBenchmark {
+
+	private static final int WARMUP_OBJECTS = 200_000;
+	private static final int QUEUE_CAPACITY = 1024;
+	private static final double POOLED_MAX_BYTES_PER_OBJECT = 1.0;
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	public static void main(String[] args) throws InterruptedException {
+		int objects = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		THREADS.setThreadAllocatedMemoryEnabled(true);
+
+		Result strings = run(false, objects);
+		Result pooled = run(true, objects);
+		print("strings", strings);
+		print("pooled", pooled);
+		if(pooled.bytesPerObject() > POOLED_MAX_BYTES_PER_OBJECT) {
+			System.err.println("Pooled payloads are not allocation-free");
+			System.exit(1);
+		}
+	}
+
+	private static Result run(boolean pooled, int objects) throws InterruptedException {
+		RingBuffer queue = new RingBuffer(QUEUE_CAPACITY);
+		WaitStrategy waitStrategy = new YieldingWaitStrategy();
+		Progress progress = new Progress();
+
+		Producer producer = new Producer("ProdThread_0", queue, waitStrategy);
+		producer.setSimulateWork(false);
+		Consumer consumer = new Consumer("ConsThread_0", queue, waitStrategy, 1);
+		consumer.setSimulateWork(false);
+		consumer.setProcessingListener(progress);
+		PayloadPool pool = null;
+		if(pooled) {
+			pool = new PayloadPool(QUEUE_CAPACITY + 2);
+			producer.setPayloadPool(pool);
+			producer.setLogInterval(ProducerConsumerDemo.POOLED_LOG_INTERVAL);
+			consumer.setLogInterval(ProducerConsumerDemo.POOLED_LOG_INTERVAL);
+		}
+		Thread producerThread = new Thread(producer, "benchmark-producer");
+		Thread consumerThread = new Thread(consumer, "benchmark-consumer");
+		consumerThread.start();
+		producerThread.start();
+
+		awaitProcessed(progress, WARMUP_OBJECTS);
+		long startObjects = progress.processed;
+		long startBytes = allocatedBytes(producerThread) + allocatedBytes(consumerThread);
+		long start = System.nanoTime();
+		awaitProcessed(progress, startObjects + objects);
+		long endBytes = allocatedBytes(producerThread) + allocatedBytes(consumerThread);
+		long endObjects = progress.processed;
+
+		Result result = new Result();
+		result.elapsedNs = System.nanoTime() - start;
+		result.objects = endObjects - startObjects;
+		result.bytes = endBytes - startBytes;
+		result.poolMisses = pool != null ? pool.getMisses() : 0;
+
+		consumer.retire();
+		producerThread.interrupt();
+		consumerThread.interrupt();
+		producerThread.join();
+		consumerThread.join();
+		return result;
+	}
+
+	private static void awaitProcessed(Progress progress, long objects) throws InterruptedException {
+		while(progress.processed < objects) {
+			TimeUnit.MILLISECONDS.sleep(1);
+		}
+	}
+
+	private static long allocatedBytes(Thread thread) {
+		return THREADS.getThreadAllocatedBytes(thread.getId());
+	}
+
+	private static void print(String mode, Result result) {
+		System.err.println(String.format("%-8s producer + consumer %.2f B/object, %.0f objects/s, pool misses %d",
+				mode, result.bytesPerObject(), result.objects * 1e9 / result.elapsedNs, result.poolMisses));
+	}
+
+	// Only the one consumer thread counts, reading the count is all the benchmark needs
+	private static class Progress implements ProcessingListener {
+
+		private volatile long processed;
+
+		@Override
+		public void objectProcessed(Consumer consumer, long processingTimeNs) {
+			processed++;
+		}
+	}
+
+	private static class Result {
+
+		private long objects;
+		private long bytes;
+		private long elapsedNs;
+		private long poolMisses;
+
+		double bytesPerObject() {
+			return (double) bytes / objects;
+		}
+	}
+}
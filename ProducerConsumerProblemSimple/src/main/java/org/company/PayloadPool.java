@@ -0,0 +1,41 @@
+package org.company;
+
+// Fixed set of preallocated payloads kept in a RingBuffer free list.
+//
+// Size it for everything that can be in flight at once: the queue capacity plus one payload per
+// producer and a batch per consumer. If the pool still runs dry a new payload is allocated
+// (and counted as a miss); releasing into a full pool simply drops the payload.
+public class PayloadPool {
+
+	private final RingBuffer free;
+	private volatile long misses;
+
+	public PayloadPool(int size) {
+		free = new RingBuffer(size);
+		for(int i=0; i<size; i++) {
+			free.offer(new Payload(this));
+		}
+	}
+
+	public Payload acquire() {
+		Payload payload = (Payload) free.poll();
+		if(payload == null) {
+			misses++;
+			payload = new Payload(this);
+		}
+		return payload;
+	}
+
+	void release(Payload payload) {
+		free.offer(payload);
+	}
+
+	public int available() {
+		return free.size();
+	}
+
+	// Not exact under contention, good enough to tell whether the pool is too small
+	public long getMisses() {
+		return misses;
+	}
+}
@@ -0,0 +1,157 @@
+package org.company;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+// Runs events through a chain of stages over one preallocated ring of reusable event objects
+// (the Disruptor idea). Producers claim a sequence, fill the event in place and publish it.
+// Every stage waits on a barrier - the published cursor for the first stage, the slowest worker
+// of the previous stage for the others - and producers cannot wrap past the slowest worker of
+// the last stage. Each event is handled by exactly one worker of every stage, so the events
+// move between stages without being copied.
+public class Pipeline<E> {
+
+	private final Object[] events;
+	private final int mask;
+	private final WaitStrategy waitStrategy;
+
+	private final PaddedAtomicLong claimed = new PaddedAtomicLong(-1);
+	private final PaddedAtomicLong cursor = new PaddedAtomicLong(-1);
+	private final List<Stage> stages = new ArrayList<>();
+	private final List<Future<?>> workers = new ArrayList<>();
+
+	public Pipeline(int ringSize, Supplier<E> eventFactory, WaitStrategy waitStrategy) {
+		if(Integer.bitCount(ringSize) != 1) {
+			throw new IllegalArgumentException("Ring size must be a power of two: " + ringSize);
+		}
+		this.events = new Object[ringSize];
+		this.mask = ringSize - 1;
+		this.waitStrategy = waitStrategy;
+		for(int i=0; i<ringSize; i++) {
+			events[i] = eventFactory.get();
+		}
+	}
+
+	// Stages run in the order they were added
+	public Pipeline<E> addStage(EventHandler<E> handler, int parallelism) {
+		if(!workers.isEmpty()) {
+			throw new IllegalStateException("Pipeline already started");
+		}
+		stages.add(new Stage(handler, parallelism, stages.isEmpty() ? null : stages.get(stages.size() - 1)));
+		return this;
+	}
+
+	public void start(ExecutorService executor) {
+		if(stages.isEmpty()) {
+			throw new IllegalStateException("Pipeline has no stages");
+		}
+		for(Stage stage : stages) {
+			for(int i=0; i<stage.workerSequences.length; i++) {
+				workers.add(executor.submit(new Worker(stage, stage.workerSequences[i])));
+			}
+		}
+	}
+
+	public void halt() {
+		for(Future<?> worker : workers) {
+			worker.cancel(true);
+		}
+	}
+
+	public long next() throws InterruptedException {
+		long sequence = claimed.incrementAndGet();
+		long wrapPoint = sequence - events.length;
+		if(wrapPoint > lastStage().minimumSequence()) {
+			waitStrategy.waitUntil(() -> wrapPoint <= lastStage().minimumSequence());
+		}
+		return sequence;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E get(long sequence) {
+		return (E) events[(int) (sequence & mask)];
+	}
+
+	// Sequences become visible in order, a producer waits for the ones claimed before its own
+	public void publish(long sequence) throws InterruptedException {
+		if(cursor.get() != sequence - 1) {
+			waitStrategy.waitUntil(() -> cursor.get() == sequence - 1);
+		}
+		cursor.set(sequence);
+		waitStrategy.signalAll();
+	}
+
+	private Stage lastStage() {
+		return stages.get(stages.size() - 1);
+	}
+
+	private class Stage {
+
+		private final EventHandler<E> handler;
+		private final Stage previous;
+		private final PaddedAtomicLong workSequence = new PaddedAtomicLong(-1);
+		private final PaddedAtomicLong[] workerSequences;
+
+		Stage(EventHandler<E> handler, int parallelism, Stage previous) {
+			if(parallelism < 1) {
+				throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+			}
+			this.handler = handler;
+			this.previous = previous;
+			this.workerSequences = new PaddedAtomicLong[parallelism];
+			for(int i=0; i<parallelism; i++) {
+				workerSequences[i] = new PaddedAtomicLong(-1);
+			}
+		}
+
+		long availableSequence() {
+			return previous == null ? cursor.get() : previous.minimumSequence();
+		}
+
+		// Every sequence up to the returned one has been handled by this stage
+		long minimumSequence() {
+			long minimum = Long.MAX_VALUE;
+			for(PaddedAtomicLong sequence : workerSequences) {
+				minimum = Math.min(minimum, sequence.get());
+			}
+			return minimum;
+		}
+	}
+
+	private class Worker implements Runnable {
+
+		private final Stage stage;
+		private final PaddedAtomicLong sequence;
+		private long nextSequence;
+		private final BooleanSupplier nextAvailable;
+
+		Worker(Stage stage, PaddedAtomicLong sequence) {
+			this.stage = stage;
+			this.sequence = sequence;
+			this.nextAvailable = () -> stage.availableSequence() >= nextSequence;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while(!Thread.currentThread().isInterrupted()) {
+					// claiming the next sequence also tells the barriers that the previous one is done
+					nextSequence = stage.workSequence.incrementAndGet();
+					sequence.set(nextSequence - 1);
+					waitStrategy.signalAll();
+
+					if(stage.availableSequence() < nextSequence) {
+						waitStrategy.waitUntil(nextAvailable);
+					}
+					stage.handler.onEvent(get(nextSequence), nextSequence);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package org.company;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// produce -> parse -> enrich -> persist over one Pipeline, every stage with its own parallelism
+// usage: PipelineDemo [wait strategy]
+public class PipelineDemo {
+
+	private static final int RING_SIZE = 1024;
+	private static final int NUM_PRODUCER_THREADS = 2;
+	private static final int PARSE_THREADS = 2;
+	private static final int ENRICH_THREADS = 4;
+	private static final int PERSIST_THREADS = 1;
+	private static final long RUN_TIME_SEC = 5;
+
+	static class ObjectEvent {
+		final char[] raw = new char[5];
+		int checksum;
+		long enrichedAt;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		WaitStrategy waitStrategy = WaitStrategyType.fromName(args.length > 0 ? args[0] : "yielding").create();
+		LongAdder persisted = new LongAdder();
+
+		Pipeline<ObjectEvent> pipeline = new Pipeline<>(RING_SIZE, ObjectEvent::new, waitStrategy)
+				.addStage(PipelineDemo::parse, PARSE_THREADS)
+				.addStage(PipelineDemo::enrich, ENRICH_THREADS)
+				.addStage((event, sequence) -> persisted.increment(), PERSIST_THREADS);
+
+		ExecutorService executor = ThreadMode.PLATFORM.newExecutor();
+		pipeline.start(executor);
+		for(int i=0; i<NUM_PRODUCER_THREADS; i++) {
+			executor.execute(() -> produce(pipeline));
+		}
+
+		for(int i=0; i<RUN_TIME_SEC; i++) {
+			TimeUnit.SECONDS.sleep(1);
+			System.out.println("Persisted objects: " + persisted.sum());
+		}
+		pipeline.halt();
+		executor.shutdownNow();
+	}
+
+	private static void produce(Pipeline<ObjectEvent> pipeline) {
+		try {
+			while(!Thread.currentThread().isInterrupted()) {
+				long sequence = pipeline.next();
+				ObjectEvent event = pipeline.get(sequence);
+				for(int i=0; i<event.raw.length; i++) {
+					event.raw[i] = (char)(ThreadLocalRandom.current().nextInt(26) + 'a');
+				}
+				pipeline.publish(sequence);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void parse(ObjectEvent event, long sequence) {
+		int checksum = 0;
+		for(char c : event.raw) {
+			checksum = 31 * checksum + c;
+		}
+		event.checksum = checksum;
+	}
+
+	private static void enrich(ObjectEvent event, long sequence) {
+		event.enrichedAt = System.nanoTime();
+	}
+}
@@ -0,0 +1,6 @@
+package org.company;
+
+public interface ProcessingListener {
+
+	void objectProcessed(Consumer consumer, long processingTimeNs);
+}
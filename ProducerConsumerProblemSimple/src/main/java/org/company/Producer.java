@@ -1,67 +1,223 @@
 package org.company;
 
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
 
-public class Producer extends Thread {
+public class Producer implements Runnable {
 
 	private static final int MAX_GENERATE_TIME_NS = 4000;
-	private static final int LIST_CAPACITY = 20;
+	static final int LIST_CAPACITY = 20;
 
-	private List<Object> objList;
+	private final String name;
+	private SharedList objList;
+	private ObjectQueue queue;
+	private WaitStrategy waitStrategy;
+	private Object pending;
+	private final BooleanSupplier offerPending = () -> offer(pending);
+	private QueueMetrics metrics;
+	private QueueMetrics.Recorder recorder;
+	private PayloadPool payloadPool;
+	private int keyCount;
+	private int logInterval = 1;
+	private long produced;
+	private boolean simulateWork = true;
 
-	public Producer(String name, List<Object> objList) {
-		setName(name);
+	public Producer(String name, SharedList objList) {
+		this.name = name;
 		this.objList = objList;
 	}
 
+	// Waits on the list through waitStrategy instead of the list's conditions
+	public Producer(String name, SharedList objList, WaitStrategy waitStrategy) {
+		this.name = name;
+		this.objList = objList;
+		this.waitStrategy = waitStrategy;
+	}
+
+	public Producer(String name, ObjectQueue queue, WaitStrategy waitStrategy) {
+		this.name = name;
+		this.queue = queue;
+		this.waitStrategy = waitStrategy;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setMetrics(QueueMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	// Produces reusable payloads from the pool instead of new Strings, consumers release them
+	public void setPayloadPool(PayloadPool payloadPool) {
+		this.payloadPool = payloadPool;
+	}
+
+	// Tags every object with one of keyCount entity keys, 0 leaves objects unkeyed
+	public void setKeyCount(int keyCount) {
+		this.keyCount = keyCount;
+	}
+
+	// Logs only every logInterval-th object. Describing an object and building its log line
+	// allocates, so pooled payloads are only allocation-free with a large interval.
+	public void setLogInterval(int logInterval) {
+		if(logInterval < 1) {
+			throw new IllegalArgumentException("Log interval must be positive: " + logInterval);
+		}
+		this.logInterval = logInterval;
+	}
+
+	// false skips the random time it takes to generate an object, for benchmarks of the bare loop
+	public void setSimulateWork(boolean simulateWork) {
+		this.simulateWork = simulateWork;
+	}
+
 	@Override
 	public void run() {
+		if(metrics != null) {
+			recorder = metrics.newRecorder();
+		}
+		try {
+			if(waitStrategy != null) {
+				runWithWaitStrategy();
+			} else {
+				runOnList();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			if(recorder != null) {
+				metrics.retire(recorder);
+			}
+		}
+	}
+
+	private void runOnList() throws InterruptedException {
 		while(true) {
 			Object newOBj = requestNewObject();
-			synchronized (objList) {
+			String description = describe(newOBj);
+			int size;
+			objList.lock();
+			try {
 				waitUntilProductionPossible();
-				objList.add(newOBj);
-				objList.notifyAll();
-				logNewObjectProduced(newOBj);
+				objList.add(stamp(newOBj));
+				objList.signalNotEmpty();
+				size = objList.size();
+			} finally {
+				objList.unlock();
+			}
+			if(description != null) {
+				logNewObjectProduced(description, size);
 			}
 		}
 	}
 
-	private void waitUntilProductionPossible() {
-		while(objList.size() == LIST_CAPACITY) {
-			try {
-				objList.wait();
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+	private void runWithWaitStrategy() throws InterruptedException {
+		while(true) {
+			Object newOBj = requestNewObject();
+			// described before the handoff, a pooled payload may be reused as soon as it is consumed
+			String description = describe(newOBj);
+			pending = newOBj;
+			long waitStart = recorder != null ? System.nanoTime() : 0;
+			waitStrategy.waitUntil(offerPending);
+			if(recorder != null) {
+				recorder.recordProductionWait(System.nanoTime() - waitStart);
+			}
+			pending = null;
+			waitStrategy.signalAll();
+			if(description != null) {
+				logNewObjectProduced(description, size());
 			}
 		}
 	}
 
-	private Object requestNewObject() {
-		StringBuilder s = new StringBuilder();
-		for(int i=0; i<5; i++) {
-			s.append(getRandomChar());
+	// The list is checked and filled in one critical section, the wait strategy retries when it is full
+	private boolean offer(Object obj) {
+		if(queue != null) {
+			return queue.offer(stamp(obj));
+		}
+		objList.lock();
+		try {
+			if(objList.size() == LIST_CAPACITY) {
+				return false;
+			}
+			objList.add(stamp(obj));
+			return true;
+		} finally {
+			objList.unlock();
+		}
+	}
+
+	private int size() {
+		if(queue != null) {
+			return queue.size();
+		}
+		objList.lock();
+		try {
+			return objList.size();
+		} finally {
+			objList.unlock();
+		}
+	}
+
+	private void waitUntilProductionPossible() throws InterruptedException {
+		long waitStart = recorder != null ? System.nanoTime() : 0;
+		while(objList.size() == LIST_CAPACITY) {
+			objList.awaitNotFull();
+		}
+		if(recorder != null) {
+			recorder.recordProductionWait(System.nanoTime() - waitStart);
+		}
+	}
+
+	// With metrics enabled every object is a Payload, which carries its enqueue time
+	private Object stamp(Object item) {
+		if(recorder != null) {
+			Object value = item instanceof KeyedObject ? ((KeyedObject) item).getValue() : item;
+			((Payload) value).enqueuedNs = System.nanoTime();
+		}
+		return item;
+	}
+
+	private Object requestNewObject() throws InterruptedException {
+		Object obj;
+		if(payloadPool != null || recorder != null) {
+			Payload payload = payloadPool != null ? payloadPool.acquire() : Payload.unpooled();
+			payload.fill(ThreadLocalRandom.current());
+			obj = payload;
+		} else {
+			StringBuilder s = new StringBuilder();
+			for(int i=0; i<Payload.LENGTH; i++) {
+				s.append(getRandomChar());
+			}
+			obj = s.toString();
 		}
 		waitRandomTime();
-		return s.toString();
+		if(keyCount > 0) {
+			return new KeyedObject(ThreadLocalRandom.current().nextInt(keyCount), obj);
+		}
+		return obj;
+	}
+
+	// null for the objects that are not logged
+	private String describe(Object obj) {
+		return ++produced % logInterval == 0 ? obj.toString() : null;
 	}
 
 	private char getRandomChar() {
-		return (char)(new Random().nextInt(26) + 'a');
+		return (char)(ThreadLocalRandom.current().nextInt(26) + 'a');
 	}
 
-	private void logNewObjectProduced(Object obj) {
-		System.out.println("Producer " + getName() + " has just created new object " + obj +
-		". Current list size: " + objList.size());
+	// Logged outside the lock, the line is written by AsyncLog's own thread
+	private void logNewObjectProduced(String obj, int size) {
+		AsyncLog.log("Producer " + getName() + " has just created new object " + obj +
+		". Current list size: " + size);
 	}
 
-	private void waitRandomTime() {
-		Random rand = new Random();
-		try {
-			Thread.sleep(rand.nextInt(MAX_GENERATE_TIME_NS));
-		} catch (InterruptedException e) {
-			e.printStackTrace();
+	private void waitRandomTime() throws InterruptedException {
+		if(!simulateWork) {
+			return;
 		}
+		Thread.sleep(ThreadLocalRandom.current().nextInt(MAX_GENERATE_TIME_NS));
 	}
 }
@@ -1,27 +1,171 @@
 package org.company;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class ProducerConsumerDemo {
 
 	private static final int NUM_PRODUCER_THREADS = 2;
 	private static final int NUM_CONSUMER_THREADS = 5;
+	private static final int MAPPED_SEGMENT_SIZE = 1024 * 1024;
+	// Pooled payloads log one object in POOLED_LOG_INTERVAL, so the loops stay allocation-free
+	static final int POOLED_LOG_INTERVAL = 1024;
 
-	private List<Object> objList = new LinkedList<>();
+	private SharedList objList = new SharedList();
+	private ObjectQueue queue;
+	private ShardedQueue shardedQueue;
+	private PartitionedQueue partitionedQueue;
+	private QueueMetrics metrics;
+	private PayloadPool payloadPool;
 
-	public static void main(String[] args) {
-		new ProducerConsumerDemo().runDemo();
+	// usage: ProducerConsumerDemo [option=value ...]
+	//   queue=list|ring|mapped|sharded|partitioned
+	//   lanes=<ordered lanes of the partitioned queue, default consumers>
+	//   keys=<number of entity keys objects are tagged with, 0 = none, default 16 for partitioned>
+	//   dir=<directory of the mapped queue>
+	//   wait=busy-spin|yielding|parking|blocking
+	//   batch=<consumer batch size>
+	//   threads=platform|virtual
+	//   producers=<count> consumers=<count>
+	//   pool=fixed|adaptive (adaptive scales between 1 and consumers, needs a queue other than list)
+	//   metrics=<report interval in seconds, 0 = off>
+	//   payloads=string|pooled (pooled needs an in-memory queue)
+	public static void main(String[] args) throws InterruptedException, IOException {
+		WaitStrategy waitStrategy = WaitStrategyType.fromName(option(args, "wait", "blocking")).create();
+		int batchSize = Integer.parseInt(option(args, "batch", "1"));
+		ThreadMode threadMode = ThreadMode.fromName(option(args, "threads", "platform"));
+		int producers = Integer.parseInt(option(args, "producers", String.valueOf(NUM_PRODUCER_THREADS)));
+		int consumers = Integer.parseInt(option(args, "consumers", String.valueOf(NUM_CONSUMER_THREADS)));
+
+		boolean adaptivePool = "adaptive".equals(option(args, "pool", "fixed"));
+		long metricsIntervalSec = Long.parseLong(option(args, "metrics", "0"));
+
+		ProducerConsumerDemo demo = new ProducerConsumerDemo();
+		String queueType = option(args, "queue", "list");
+		int lanes = Integer.parseInt(option(args, "lanes", String.valueOf(consumers)));
+		int keyCount = Integer.parseInt(option(args, "keys", "partitioned".equals(queueType) ? "16" : "0"));
+		demo.createQueue(queueType, option(args, "dir", "queue-data"), producers, lanes, waitStrategy);
+		if(metricsIntervalSec > 0) {
+			demo.startMetrics(metricsIntervalSec);
+		}
+		if("pooled".equals(option(args, "payloads", "string"))) {
+			demo.createPayloadPool(producers, consumers, batchSize);
+		}
+		demo.runDemo(waitStrategy, batchSize, threadMode, producers, consumers, adaptivePool, keyCount);
 	}
 
-	private void runDemo() {
-		for(int i=0; i<NUM_PRODUCER_THREADS; i++) {
-			new Producer("ProdThread_" + i, objList).start();
+	private void createQueue(String queueType, String directory, int producers, int lanes, WaitStrategy waitStrategy) throws IOException {
+		if("ring".equals(queueType)) {
+			queue = new RingBuffer(Producer.LIST_CAPACITY);
+		} else if("mapped".equals(queueType)) {
+			queue = MappedQueue.open(Paths.get(directory), MAPPED_SEGMENT_SIZE).consumerGroup("demo");
+		} else if("sharded".equals(queueType)) {
+			shardedQueue = new ShardedQueue(producers, Math.max(producers, Producer.LIST_CAPACITY));
+		} else if("partitioned".equals(queueType)) {
+			partitionedQueue = new PartitionedQueue(lanes, Math.max(lanes, Producer.LIST_CAPACITY), waitStrategy);
+		}
+	}
 
+	private void startMetrics(long reportIntervalSec) {
+		if(shardedQueue != null) {
+			metrics = new QueueMetrics(shardedQueue::size);
+		} else if(partitionedQueue != null) {
+			metrics = new QueueMetrics(partitionedQueue::size);
+		} else if(queue != null) {
+			metrics = new QueueMetrics(queue::size, !(queue instanceof MappedQueue.ConsumerGroup));
+		} else {
+			metrics = new QueueMetrics(objList::size);
 		}
-		for(int i=0; i<NUM_CONSUMER_THREADS; i++) {
-			new Consumer("ConsThread_" + i, objList).start();
+		metrics.start(reportIntervalSec);
+	}
+
+	// Enough payloads for a full queue, one in the hands of every producer and a batch for every consumer
+	private void createPayloadPool(int producers, int consumers, int batchSize) {
+		if(queue instanceof MappedQueue.ConsumerGroup) {
+			throw new IllegalArgumentException("Pooled payloads need queue=list|ring|sharded");
 		}
+		int capacity = usesList() ? Producer.LIST_CAPACITY : consumerQueue(0).capacity();
+		payloadPool = new PayloadPool(capacity + producers + consumers * batchSize);
+	}
+
+	private void runDemo(WaitStrategy waitStrategy, int batchSize, ThreadMode threadMode,
+			int producers, int consumers, boolean adaptivePool, int keyCount) throws InterruptedException {
+		if(adaptivePool && usesList()) {
+			throw new IllegalArgumentException("Adaptive consumer pool needs queue=ring|mapped|sharded|partitioned");
+		}
+		ExecutorService executor = threadMode.newExecutor();
+		for(int i=0; i<producers; i++) {
+			executor.execute(newProducer(i, waitStrategy, keyCount));
+		}
+		if(adaptivePool) {
+			AdaptiveConsumerPool pool = new AdaptiveConsumerPool(this::consumerQueue, waitStrategy, batchSize, 1, consumers, executor);
+			pool.setMetrics(metrics);
+			pool.start();
+		} else {
+			for(int i=0; i<consumers; i++) {
+				executor.execute(newConsumer(i, waitStrategy, batchSize));
+			}
+		}
+		if(!adaptivePool) {
+			// the pool keeps submitting new consumers
+			executor.shutdown();
+		}
+		executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+	}
 
+	private Producer newProducer(int index, WaitStrategy waitStrategy, int keyCount) {
+		Producer producer;
+		if(shardedQueue != null) {
+			producer = new Producer("ProdThread_" + index, shardedQueue.producerView(index), waitStrategy);
+		} else if(partitionedQueue != null) {
+			producer = new Producer("ProdThread_" + index, partitionedQueue.producerView(), waitStrategy);
+		} else if(queue != null) {
+			producer = new Producer("ProdThread_" + index, queue, waitStrategy);
+		} else {
+			producer = new Producer("ProdThread_" + index, objList, waitStrategy);
+		}
+		producer.setMetrics(metrics);
+		producer.setPayloadPool(payloadPool);
+		producer.setKeyCount(keyCount);
+		if(payloadPool != null) {
+			producer.setLogInterval(POOLED_LOG_INTERVAL);
+		}
+		return producer;
+	}
+
+	private Consumer newConsumer(int index, WaitStrategy waitStrategy, int batchSize) {
+		Consumer consumer;
+		if(usesList()) {
+			consumer = new Consumer("ConsThread_" + index, objList, waitStrategy, batchSize);
+		} else {
+			consumer = new Consumer("ConsThread_" + index, consumerQueue(index), waitStrategy, batchSize);
+		}
+		consumer.setMetrics(metrics);
+		if(payloadPool != null) {
+			consumer.setLogInterval(POOLED_LOG_INTERVAL);
+		}
+		return consumer;
+	}
+
+	private ObjectQueue consumerQueue(int index) {
+		if(shardedQueue != null) {
+			return shardedQueue.consumerView(index);
+		}
+		return partitionedQueue != null ? partitionedQueue.consumerView() : queue;
+	}
+
+	private boolean usesList() {
+		return queue == null && shardedQueue == null && partitionedQueue == null;
+	}
+
+	private static String option(String[] args, String name, String defaultValue) {
+		for(String arg : args) {
+			if(arg.startsWith(name + "=")) {
+				return arg.substring(name.length() + 1);
+			}
+		}
+		return defaultValue;
 	}
 }
@@ -0,0 +1,196 @@
+package org.company;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+// Low overhead instrumentation of a producer/consumer queue.
+//
+// Every producer and consumer records into its own Recorder, so recording is a few array
+// increments without locks or allocation. A background thread samples the queue depth and
+// periodically merges all recorders into a printed summary. The recorder of a producer or
+// consumer that stops is folded into one retired recorder, so an adaptive pool that keeps
+// replacing consumers does not grow the list. An AdaptiveConsumerPool also reports its
+// consumer count and every resize decision.
+public class QueueMetrics {
+
+	private static final long DEPTH_SAMPLE_INTERVAL_MS = 10;
+
+	private final IntSupplier depth;
+	private final boolean measuresHandoff;
+	private final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+	private final Recorder retired = new Recorder();
+	private final LatencyHistogram depthHistogram = new LatencyHistogram();
+	private volatile int lastDepth;
+	// -1 until a consumer pool reports its size
+	private volatile int consumerCount = -1;
+	private final AtomicLong scaleUps = new AtomicLong();
+	private final AtomicLong scaleDowns = new AtomicLong();
+	private volatile AdaptiveConsumerPool.ResizeDecision lastResize;
+	private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "QueueMetrics-sampler");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public QueueMetrics(IntSupplier depth) {
+		this(depth, true);
+	}
+
+	// measuresHandoff is false for queues that do not hand over the objects themselves, like
+	// MappedQueue, which stores their text. The report then says so instead of showing no samples.
+	public QueueMetrics(IntSupplier depth, boolean measuresHandoff) {
+		this.depth = depth;
+		this.measuresHandoff = measuresHandoff;
+	}
+
+	public void start(long reportIntervalSec) {
+		sampler.scheduleAtFixedRate(this::sampleDepth, 0, DEPTH_SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+		sampler.scheduleAtFixedRate(() -> AsyncLog.log(report()),
+				reportIntervalSec, reportIntervalSec, TimeUnit.SECONDS);
+	}
+
+	public void stop() {
+		sampler.shutdownNow();
+	}
+
+	public Recorder newRecorder() {
+		Recorder recorder = new Recorder();
+		recorders.add(recorder);
+		return recorder;
+	}
+
+	// Called by the owner of the recorder when it stops recording. A report made at the same
+	// moment may miss its counts once.
+	public void retire(Recorder recorder) {
+		if(recorders.remove(recorder)) {
+			synchronized (retired) {
+				retired.add(recorder);
+			}
+		}
+	}
+
+	public void recordConsumerCount(int consumers) {
+		consumerCount = consumers;
+	}
+
+	public void recordResize(AdaptiveConsumerPool.ResizeDecision decision) {
+		if(decision.getToConsumers() > decision.getFromConsumers()) {
+			scaleUps.incrementAndGet();
+		} else {
+			scaleDowns.incrementAndGet();
+		}
+		lastResize = decision;
+		consumerCount = decision.getToConsumers();
+	}
+
+	public long getScaleUpCount() {
+		return scaleUps.get();
+	}
+
+	public long getScaleDownCount() {
+		return scaleDowns.get();
+	}
+
+	public LatencyHistogram getProductionWaitNs() {
+		return merged(r -> r.productionWaitNs);
+	}
+
+	public LatencyHistogram getConsumptionWaitNs() {
+		return merged(r -> r.consumptionWaitNs);
+	}
+
+	public LatencyHistogram getHandoffLatencyNs() {
+		return merged(r -> r.handoffLatencyNs);
+	}
+
+	public LatencyHistogram getDepth() {
+		LatencyHistogram copy = new LatencyHistogram();
+		synchronized (depthHistogram) {
+			copy.add(depthHistogram);
+		}
+		return copy;
+	}
+
+	public String report() {
+		LatencyHistogram depthSnapshot = getDepth();
+		return "Queue depth now=" + lastDepth + " mean=" + String.format("%.1f", depthSnapshot.getMean()) +
+				" max=" + depthSnapshot.getMax() + "\n" +
+				format("Producer wait  ", getProductionWaitNs()) + "\n" +
+				format("Consumer wait  ", getConsumptionWaitNs()) + "\n" +
+				(measuresHandoff ? format("Handoff latency", getHandoffLatencyNs()) : "Handoff latency not measured for this queue") +
+				formatConsumerPool();
+	}
+
+	private String formatConsumerPool() {
+		int consumers = consumerCount;
+		if(consumers < 0) {
+			return "";
+		}
+		AdaptiveConsumerPool.ResizeDecision last = lastResize;
+		return "\nConsumer pool  consumers=" + consumers + " scale-ups=" + scaleUps.get() +
+				" scale-downs=" + scaleDowns.get() + (last != null ? " last: " + last : "");
+	}
+
+	private void sampleDepth() {
+		int current = depth.getAsInt();
+		lastDepth = current;
+		synchronized (depthHistogram) {
+			depthHistogram.record(current);
+		}
+	}
+
+	private LatencyHistogram merged(Function<Recorder, LatencyHistogram> histogram) {
+		LatencyHistogram result = new LatencyHistogram();
+		for(Recorder recorder : recorders) {
+			result.add(histogram.apply(recorder));
+		}
+		synchronized (retired) {
+			result.add(histogram.apply(retired));
+		}
+		return result;
+	}
+
+	private static String format(String name, LatencyHistogram histogram) {
+		return name + " us: count=" + histogram.getTotalCount() +
+				" p50=" + micros(histogram.getValueAtPercentile(50)) +
+				" p99=" + micros(histogram.getValueAtPercentile(99)) +
+				" p99.9=" + micros(histogram.getValueAtPercentile(99.9)) +
+				" max=" + micros(histogram.getMax());
+	}
+
+	private static long micros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	// Owned by a single producer or consumer
+	public static class Recorder {
+
+		private final LatencyHistogram productionWaitNs = new LatencyHistogram();
+		private final LatencyHistogram consumptionWaitNs = new LatencyHistogram();
+		private final LatencyHistogram handoffLatencyNs = new LatencyHistogram();
+
+		public void recordProductionWait(long waitNs) {
+			productionWaitNs.record(waitNs);
+		}
+
+		public void recordConsumptionWait(long waitNs) {
+			consumptionWaitNs.record(waitNs);
+		}
+
+		public void recordHandoffLatency(long latencyNs) {
+			handoffLatencyNs.record(latencyNs);
+		}
+
+		private void add(Recorder other) {
+			productionWaitNs.add(other.productionWaitNs);
+			consumptionWaitNs.add(other.consumptionWaitNs);
+			handoffLatencyNs.add(other.handoffLatencyNs);
+		}
+	}
+}
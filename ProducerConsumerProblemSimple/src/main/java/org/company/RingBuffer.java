@@ -0,0 +1,110 @@
+package org.company;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded multi-producer/multi-consumer queue over a preallocated slot array.
+// Every slot carries a sequence number telling whether it is ready to be written
+// (sequence == position) or read (sequence == position + 1), so producers and
+// consumers only compete on their own counter and never take a lock.
+public class RingBuffer implements ObjectQueue {
+
+	private final int capacity;
+	private final Object[] slots;
+	private final AtomicLongArray sequences;
+
+	private final PaddedAtomicLong tail = new PaddedAtomicLong(0);
+	private final PaddedAtomicLong head = new PaddedAtomicLong(0);
+
+	public RingBuffer(int capacity) {
+		if(capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.slots = new Object[capacity];
+		this.sequences = new AtomicLongArray(capacity);
+		for(int i=0; i<capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	@Override
+	public boolean offer(Object obj) {
+		if(obj == null) {
+			throw new NullPointerException();
+		}
+		while(true) {
+			long position = tail.get();
+			int index = indexOf(position);
+			long diff = sequences.get(index) - position;
+			if(diff == 0) {
+				if(tail.compareAndSet(position, position + 1)) {
+					slots[index] = obj;
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+			} else if(diff < 0) {
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public Object poll() {
+		while(true) {
+			long position = head.get();
+			int index = indexOf(position);
+			long diff = sequences.get(index) - (position + 1);
+			if(diff == 0) {
+				if(head.compareAndSet(position, position + 1)) {
+					Object obj = slots[index];
+					slots[index] = null;
+					sequences.lazySet(index, position + capacity);
+					return obj;
+				}
+			} else if(diff < 0) {
+				return null;
+			}
+		}
+	}
+
+	// Claims a whole run of published slots with a single CAS on head
+	@Override
+	public int drainTo(Object[] batch, int maxItems) {
+		int limit = Math.min(maxItems, Math.min(batch.length, capacity));
+		while(true) {
+			long position = head.get();
+			int available = 0;
+			while(available < limit &&
+					sequences.get(indexOf(position + available)) == position + available + 1) {
+				available++;
+			}
+			if(available == 0) {
+				return 0;
+			}
+			if(head.compareAndSet(position, position + available)) {
+				for(int i=0; i<available; i++) {
+					int index = indexOf(position + i);
+					batch[i] = slots[index];
+					slots[index] = null;
+					sequences.lazySet(index, position + i + capacity);
+				}
+				return available;
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		long size = tail.get() - head.get();
+		return (int) Math.max(0, Math.min(size, capacity));
+	}
+
+	@Override
+	public int capacity() {
+		return capacity;
+	}
+
+	private int indexOf(long position) {
+		return (int) (position % capacity);
+	}
+}
@@ -0,0 +1,180 @@
+package org.company;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Splits one queue into shards so threads working on different shards never touch the same lock.
+//
+// Every producer appends to the tail of its own shard and only spills over to other shards
+// when its own one is full. Every consumer takes from the head of its affinity shard and,
+// when that one is empty, steals from the tails of the others. The capacity is divided
+// between shards, so the total number of queued objects never exceeds it.
+public class ShardedQueue {
+
+	private final Shard[] shards;
+	private final int capacity;
+
+	public ShardedQueue(int numShards, int capacity) {
+		if(numShards < 1 || capacity < numShards) {
+			throw new IllegalArgumentException("Need at least one slot per shard: " + numShards + " shards, capacity " + capacity);
+		}
+		this.capacity = capacity;
+		this.shards = new Shard[numShards];
+		for(int i=0; i<numShards; i++) {
+			shards[i] = new Shard(capacity / numShards + (i < capacity % numShards ? 1 : 0));
+		}
+	}
+
+	public ObjectQueue producerView(int producerIndex) {
+		return new View(producerIndex % shards.length);
+	}
+
+	public ObjectQueue consumerView(int consumerIndex) {
+		return new View(consumerIndex % shards.length);
+	}
+
+	public int size() {
+		int size = 0;
+		for(Shard shard : shards) {
+			size += shard.size;
+		}
+		return size;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	private boolean offer(int home, Object obj) {
+		if(shards[home].offerLast(obj)) {
+			return true;
+		}
+		for(int i=1; i<shards.length; i++) {
+			if(shards[(home + i) % shards.length].offerLast(obj)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int drainTo(int home, Object[] batch, int maxItems) {
+		int limit = Math.min(maxItems, batch.length);
+		int count = shards[home].pollFirst(batch, limit);
+		if(count > 0 || shards.length == 1) {
+			return count;
+		}
+		int start = ThreadLocalRandom.current().nextInt(shards.length);
+		for(int i=0; i<shards.length; i++) {
+			int victim = (start + i) % shards.length;
+			if(victim != home && (count = shards[victim].stealLast(batch, limit)) > 0) {
+				return count;
+			}
+		}
+		return 0;
+	}
+
+	private class View implements ObjectQueue {
+
+		private final int home;
+		private final Object[] single = new Object[1];
+
+		View(int home) {
+			this.home = home;
+		}
+
+		@Override
+		public boolean offer(Object obj) {
+			return ShardedQueue.this.offer(home, obj);
+		}
+
+		@Override
+		public Object poll() {
+			if(ShardedQueue.this.drainTo(home, single, 1) == 0) {
+				return null;
+			}
+			Object obj = single[0];
+			single[0] = null;
+			return obj;
+		}
+
+		@Override
+		public int drainTo(Object[] batch, int maxItems) {
+			return ShardedQueue.this.drainTo(home, batch, maxItems);
+		}
+
+		@Override
+		public int size() {
+			return ShardedQueue.this.size();
+		}
+
+		@Override
+		public int capacity() {
+			return capacity;
+		}
+	}
+
+	private static class Shard {
+
+		private final ReentrantLock lock = new ReentrantLock();
+		private final ArrayDeque<Object> objects;
+		private final int capacity;
+		private volatile int size;
+
+		Shard(int capacity) {
+			this.capacity = capacity;
+			this.objects = new ArrayDeque<>(capacity);
+		}
+
+		boolean offerLast(Object obj) {
+			if(size == capacity) {
+				return false;
+			}
+			lock.lock();
+			try {
+				if(objects.size() == capacity) {
+					return false;
+				}
+				objects.addLast(obj);
+				size = objects.size();
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		int pollFirst(Object[] batch, int maxItems) {
+			if(size == 0) {
+				return 0;
+			}
+			lock.lock();
+			try {
+				int count = 0;
+				while(count < maxItems && !objects.isEmpty()) {
+					batch[count++] = objects.pollFirst();
+				}
+				size = objects.size();
+				return count;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		// Thieves never wait for a busy shard, they just try the next one
+		int stealLast(Object[] batch, int maxItems) {
+			if(size == 0 || !lock.tryLock()) {
+				return 0;
+			}
+			try {
+				int count = 0;
+				while(count < maxItems && !objects.isEmpty()) {
+					batch[count++] = objects.pollLast();
+				}
+				size = objects.size();
+				return count;
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package org.company;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Handoff throughput of a single lock (one shard), the RingBuffer and the sharded queue
+// for 1 to 64 threads, half of them producers and half consumers. No artificial sleeps.
+public class ShardedQueueBenchmark {
+
+	private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+	private static final long MEASURE_TIME_MS = 2000;
+
+	private interface QueueSetup {
+		ObjectQueue producerQueue(int index);
+		ObjectQueue consumerQueue(int index);
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		System.out.println(String.format("%8s %16s %16s %16s", "threads", "single lock/s", "ring buffer/s", "sharded/s"));
+		for(int threads : THREAD_COUNTS) {
+			int producers = Math.max(1, threads / 2);
+			int consumers = Math.max(1, threads - producers);
+
+			ShardedQueue singleLock = new ShardedQueue(1, Producer.LIST_CAPACITY * producers);
+			RingBuffer ringBuffer = new RingBuffer(Producer.LIST_CAPACITY * producers);
+			ShardedQueue sharded = new ShardedQueue(producers, Producer.LIST_CAPACITY * producers);
+
+			long singleLockOps = measure(producers, consumers, views(singleLock));
+			long ringBufferOps = measure(producers, consumers, shared(ringBuffer));
+			long shardedOps = measure(producers, consumers, views(sharded));
+			System.out.println(String.format("%8d %16d %16d %16d", threads, singleLockOps, ringBufferOps, shardedOps));
+		}
+	}
+
+	private static QueueSetup views(ShardedQueue queue) {
+		return new QueueSetup() {
+			public ObjectQueue producerQueue(int index) {
+				return queue.producerView(index);
+			}
+
+			public ObjectQueue consumerQueue(int index) {
+				return queue.consumerView(index);
+			}
+		};
+	}
+
+	private static QueueSetup shared(ObjectQueue queue) {
+		return new QueueSetup() {
+			public ObjectQueue producerQueue(int index) {
+				return queue;
+			}
+
+			public ObjectQueue consumerQueue(int index) {
+				return queue;
+			}
+		};
+	}
+
+	// Returns consumed objects per second
+	private static long measure(int producers, int consumers, QueueSetup setup) throws InterruptedException {
+		LongAdder consumed = new LongAdder();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		Object item = new Object();
+
+		for(int i=0; i<producers; i++) {
+			ObjectQueue queue = setup.producerQueue(i);
+			threads.add(new Thread(() -> {
+				awaitStart(start);
+				while(!Thread.currentThread().isInterrupted()) {
+					if(!queue.offer(item)) {
+						Thread.yield();
+					}
+				}
+			}));
+		}
+		for(int i=0; i<consumers; i++) {
+			ObjectQueue queue = setup.consumerQueue(i);
+			threads.add(new Thread(() -> {
+				awaitStart(start);
+				Object[] batch = new Object[1];
+				while(!Thread.currentThread().isInterrupted()) {
+					if(queue.drainTo(batch, 1) > 0) {
+						consumed.increment();
+					} else {
+						Thread.yield();
+					}
+				}
+			}));
+		}
+		for(Thread thread : threads) {
+			thread.start();
+		}
+		start.countDown();
+		Thread.sleep(MEASURE_TIME_MS);
+		long result = consumed.sum() * TimeUnit.SECONDS.toMillis(1) / MEASURE_TIME_MS;
+		for(Thread thread : threads) {
+			thread.interrupt();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		return result;
+	}
+
+	private static void awaitStart(CountDownLatch start) {
+		try {
+			start.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package org.company;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// List shared by producers and consumers together with the lock guarding it.
+// A ReentrantLock is used instead of the list's monitor because a virtual thread
+// blocked in Object.wait() stays pinned to its carrier thread.
+public class SharedList {
+
+	private final List<Object> objects = new LinkedList<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	private final Condition notEmpty = lock.newCondition();
+
+	public void lock() {
+		lock.lock();
+	}
+
+	public void unlock() {
+		lock.unlock();
+	}
+
+	public void awaitNotFull() throws InterruptedException {
+		notFull.await();
+	}
+
+	public void awaitNotEmpty() throws InterruptedException {
+		notEmpty.await();
+	}
+
+	// Timed variants return the nanoseconds left, zero or less when the time is up
+	public long awaitNotFull(long nanos) throws InterruptedException {
+		return notFull.awaitNanos(nanos);
+	}
+
+	public long awaitNotEmpty(long nanos) throws InterruptedException {
+		return notEmpty.awaitNanos(nanos);
+	}
+
+	public void signalNotFull() {
+		notFull.signal();
+	}
+
+	public void signalAllNotFull() {
+		notFull.signalAll();
+	}
+
+	public void signalNotEmpty() {
+		notEmpty.signal();
+	}
+
+	public void add(Object obj) {
+		objects.add(obj);
+	}
+
+	public Object removeFirst() {
+		return objects.remove(0);
+	}
+
+	public int size() {
+		return objects.size();
+	}
+
+	public boolean isEmpty() {
+		return objects.isEmpty();
+	}
+}
@@ -0,0 +1,56 @@
+package org.company;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Where producer and consumer tasks are run
+public enum ThreadMode {
+
+	PLATFORM {
+		@Override
+		public ExecutorService newExecutor() {
+			return Executors.newCachedThreadPool();
+		}
+	},
+	// One virtual thread per task. Looked up reflectively so the module still
+	// builds for older JVMs, running it requires Java 21 or newer.
+	VIRTUAL {
+		@Override
+		public ExecutorService newExecutor() {
+			try {
+				Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				return (ExecutorService) factory.invoke(null);
+			} catch (ReflectiveOperationException e) {
+				throw new UnsupportedOperationException(
+						"Virtual threads are not available on Java " + System.getProperty("java.version"), e);
+			}
+		}
+
+		@Override
+		public boolean isAvailable() {
+			try {
+				Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				return true;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+	};
+
+	public abstract ExecutorService newExecutor();
+
+	public boolean isAvailable() {
+		return true;
+	}
+
+	// Rejects a mode the running JVM cannot provide before any task is started
+	public static ThreadMode fromName(String name) {
+		ThreadMode mode = valueOf(name.trim().toUpperCase());
+		if(!mode.isAvailable()) {
+			throw new IllegalArgumentException("threads=" + name.trim() + " needs Java 21 or newer, running on Java " +
+					System.getProperty("java.version"));
+		}
+		return mode;
+	}
+}
@@ -0,0 +1,12 @@
+package org.company;
+
+import java.util.function.BooleanSupplier;
+
+// Decides what a producer or consumer does while the queue is full or empty.
+// The same instance must be shared by both sides of a queue so that
+// signalAll() reaches the threads waiting in waitUntil().
+public interface WaitStrategy {
+
+	void waitUntil(BooleanSupplier condition) throws InterruptedException;
+	void signalAll();
+}
@@ -0,0 +1,35 @@
+package org.company;
+
+public enum WaitStrategyType {
+
+	BUSY_SPIN {
+		@Override
+		public WaitStrategy create() {
+			return new BusySpinWaitStrategy();
+		}
+	},
+	YIELDING {
+		@Override
+		public WaitStrategy create() {
+			return new YieldingWaitStrategy();
+		}
+	},
+	PARKING {
+		@Override
+		public WaitStrategy create() {
+			return new ParkingWaitStrategy();
+		}
+	},
+	BLOCKING {
+		@Override
+		public WaitStrategy create() {
+			return new BlockingWaitStrategy();
+		}
+	};
+
+	public abstract WaitStrategy create();
+
+	public static WaitStrategyType fromName(String name) {
+		return valueOf(name.trim().toUpperCase().replace('-', '_'));
+	}
+}
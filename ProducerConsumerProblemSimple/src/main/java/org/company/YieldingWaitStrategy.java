@@ -0,0 +1,28 @@
+package org.company;
+
+import java.util.function.BooleanSupplier;
+
+// Spins for a while and then gives the core away with Thread.yield()
+public class YieldingWaitStrategy implements WaitStrategy {
+
+	private static final int SPIN_TRIES = 100;
+
+	@Override
+	public void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		int counter = SPIN_TRIES;
+		while(!condition.getAsBoolean()) {
+			if(Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			if(counter > 0) {
+				counter--;
+			} else {
+				Thread.yield();
+			}
+		}
+	}
+
+	@Override
+	public void signalAll() {
+	}
+}
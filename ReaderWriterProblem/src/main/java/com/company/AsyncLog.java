@@ -0,0 +1,125 @@
+package com.company;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Copy of org.company.AsyncLog in ProducerConsumerProblemSimple, which explains how it works.
+// The two modules are built separately.
+public final class AsyncLog {
+
+	private static final int MAX_PENDING = 64 * 1024;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final long IDLE_PARK_NS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private static final Queue<String> pending = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger pendingCount = new AtomicInteger();
+	private static final AtomicLong dropped = new AtomicLong();
+	private static volatile boolean writerIdle;
+	private static volatile boolean stopping;
+	private static final Thread writer = startWriter();
+
+	private AsyncLog() {
+	}
+
+	public static void log(String line) {
+		if(pendingCount.incrementAndGet() > MAX_PENDING) {
+			pendingCount.decrementAndGet();
+			dropped.incrementAndGet();
+			return;
+		}
+		pending.offer(line);
+		if(writerIdle) {
+			LockSupport.unpark(writer);
+		}
+	}
+
+	public static long getDroppedCount() {
+		return dropped.get();
+	}
+
+	private static Thread startWriter() {
+		Thread thread = new Thread(AsyncLog::writeLoop, "async-log");
+		thread.setDaemon(true);
+		thread.start();
+		// lines still queued when the demo is stopped are written out on exit.
+		// Not interrupted, that would close the channel in the middle of a write.
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			stopping = true;
+			LockSupport.unpark(thread);
+			try {
+				thread.join(TimeUnit.SECONDS.toMillis(1));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, "async-log-flush"));
+		return thread;
+	}
+
+	private static void writeLoop() {
+		WritableByteChannel out = Channels.newChannel(new FileOutputStream(FileDescriptor.out));
+		CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		long reportedDrops = 0;
+		try {
+			while(true) {
+				boolean lastRound = stopping;
+				String line;
+				while((line = pending.poll()) != null) {
+					pendingCount.decrementAndGet();
+					append(line, encoder, buffer, out);
+				}
+				long drops = dropped.get();
+				if(drops > reportedDrops) {
+					append("AsyncLog dropped " + (drops - reportedDrops) + " lines", encoder, buffer, out);
+					reportedDrops = drops;
+				}
+				flush(buffer, out);
+				if(lastRound) {
+					return;
+				}
+				writerIdle = true;
+				if(pending.isEmpty()) {
+					LockSupport.parkNanos(IDLE_PARK_NS);
+				}
+				writerIdle = false;
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void append(String line, CharsetEncoder encoder, ByteBuffer buffer, WritableByteChannel out) throws IOException {
+		CharBuffer chars = CharBuffer.wrap(line + System.lineSeparator());
+		encoder.reset();
+		while(true) {
+			CoderResult result = encoder.encode(chars, buffer, true);
+			if(result.isOverflow()) {
+				flush(buffer, out);
+			} else {
+				break;
+			}
+		}
+	}
+
+	private static void flush(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,97 @@
+package com.company;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+// Write-combining front end for another DataAccess.
+//
+// A write is first folded into a staging word with a CAS, without any lock. The writer that
+// manages to become the combiner then takes everything staged so far and applies it with one
+// update() of the target, that is one exclusive lock acquisition for the whole batch. The other
+// writers return right away, their values are applied by the combiner, so a write may become
+// visible to readers a moment after write() returned.
+//
+// merge(current, update) must be associative, e.g. last write wins or sum or max, because staged
+// updates are merged with each other before they are merged into the current value.
+public class CoalescingDataAccess implements DataAccess {
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private final DataAccess target;
+	private final IntBinaryOperator merge;
+	// EMPTY or the merged staged value in the low 32 bits
+	private final AtomicLong staged = new AtomicLong(EMPTY);
+	private final AtomicBoolean combining = new AtomicBoolean();
+
+	private final AtomicLong submittedWrites = new AtomicLong();
+	private final AtomicLong appliedBatches = new AtomicLong();
+
+	public CoalescingDataAccess(DataAccess target, IntBinaryOperator merge) {
+		this.target = target;
+		this.merge = merge;
+	}
+
+	public static CoalescingDataAccess lastWriteWins(DataAccess target) {
+		return new CoalescingDataAccess(target, (current, update) -> update);
+	}
+
+	@Override
+	public int read() {
+		return target.read();
+	}
+
+	@Override
+	public void write(int newValue) {
+		submittedWrites.incrementAndGet();
+		long current;
+		long next;
+		do {
+			current = staged.get();
+			next = current == EMPTY ? newValue & 0xFFFFFFFFL : merge.applyAsInt((int) current, newValue) & 0xFFFFFFFFL;
+		} while(!staged.compareAndSet(current, next));
+		combine();
+	}
+
+	// newValue becomes visible only once it is staged and applied by a combiner, so running
+	// beforeVisible before staging is enough and keeps the write coalesced
+	@Override
+	public void write(int newValue, Runnable beforeVisible) {
+		beforeVisible.run();
+		write(newValue);
+	}
+
+	// Staged writes are applied first, so the update sees all of them
+	@Override
+	public void update(IntUnaryOperator update) {
+		combine();
+		target.update(update);
+		appliedBatches.incrementAndGet();
+	}
+
+	public long getSubmittedWrites() {
+		return submittedWrites.get();
+	}
+
+	// Every applied batch is one exclusive lock acquisition on the target
+	public long getAppliedBatches() {
+		return appliedBatches.get();
+	}
+
+	private void combine() {
+		// whatever is staged after the combiner let go is picked up by the check in the loop condition
+		while(staged.get() != EMPTY && combining.compareAndSet(false, true)) {
+			try {
+				long batch;
+				while((batch = staged.getAndSet(EMPTY)) != EMPTY) {
+					int merged = (int) batch;
+					target.update(current -> merge.applyAsInt(current, merged));
+					appliedBatches.incrementAndGet();
+				}
+			} finally {
+				combining.set(false);
+			}
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.company;
+
+import java.util.function.Consumer;
+
+// Every update builds a new immutable snapshot and publishes it with one volatile write,
+// so a reader only needs one volatile read to get a whole, consistent record.
+public class CopyOnWriteData implements VersionedData {
+
+	private volatile Snapshot current;
+
+	public CopyOnWriteData(int fieldCount) {
+		current = new Snapshot(0, new int[fieldCount]);
+	}
+
+	@Override
+	public int fieldCount() {
+		return current.fields.length;
+	}
+
+	@Override
+	public long read(int[] into) {
+		Snapshot snapshot = current;
+		System.arraycopy(snapshot.fields, 0, into, 0, snapshot.fields.length);
+		return snapshot.version;
+	}
+
+	// Readers that only look at a few fields can keep the snapshot instead of copying it
+	public Snapshot snapshot() {
+		return current;
+	}
+
+	@Override
+	public synchronized void update(Consumer<int[]> update) {
+		Snapshot snapshot = current;
+		int[] fields = snapshot.fields.clone();
+		update.accept(fields);
+		current = new Snapshot(snapshot.version + 1, fields);
+	}
+
+	public static final class Snapshot {
+
+		private final long version;
+		private final int[] fields;
+
+		private Snapshot(long version, int[] fields) {
+			this.version = version;
+			this.fields = fields;
+		}
+
+		public long getVersion() {
+			return version;
+		}
+
+		public int get(int field) {
+			return fields[field];
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.company;
+
+import java.util.function.IntUnaryOperator;
+
+// How readers and writers get to the shared value, every LockMode has its own implementation
+public interface DataAccess {
+
+	int read();
+	void write(int newValue);
+	// read-modify-write under one exclusive lock acquisition
+	void update(IntUnaryOperator update);
+
+	// write() that runs beforeVisible before any reader can see newValue, e.g. to queue a log line
+	// that no reader's line about newValue may come before
+	default void write(int newValue, Runnable beforeVisible) {
+		update(current -> {
+			beforeVisible.run();
+			return newValue;
+		});
+	}
+}
@@ -0,0 +1,141 @@
+package com.company;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+// RCU-style access: the value lives in an immutable-while-published Version, swapped by writers.
+//
+// A reader announces the global epoch in its own padded slot, reads the current version and
+// clears the slot. Readers write only to their own slot and only read what writers share, so they
+// never invalidate each other's cache lines. A writer publishes a new version, moves the global
+// epoch forward and retires the old version with the new epoch. Once no reader slot holds an
+// epoch older than that, no reader can still see the old version and it is reused for a later write.
+// Slots of reader threads that have ended are dropped by the next writer.
+public class EpochDataAccess implements DataAccess {
+
+	private static final long QUIESCENT = Long.MAX_VALUE;
+
+	private final AtomicLong globalEpoch = new AtomicLong();
+	private volatile Version current = new Version();
+	private final List<ReaderSlot> slots = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<ReaderSlot> slot = ThreadLocal.withInitial(this::newSlot);
+
+	// owned by writers, guarded by this
+	private final ArrayDeque<Version> retired = new ArrayDeque<>();
+	private final ArrayDeque<Version> free = new ArrayDeque<>();
+	private long recycledVersions;
+
+	@Override
+	public int read() {
+		ReaderSlot readerSlot = slot.get();
+		readerSlot.epoch = globalEpoch.get();
+		int value = current.value;
+		ReaderSlot.EPOCH.setRelease(readerSlot, QUIESCENT);
+		return value;
+	}
+
+	@Override
+	public synchronized void write(int newValue) {
+		publish(newValue);
+	}
+
+	@Override
+	public synchronized void update(IntUnaryOperator update) {
+		publish(update.applyAsInt(current.value));
+	}
+
+	// How many writes reused a retired version instead of allocating one
+	public synchronized long getRecycledVersions() {
+		return recycledVersions;
+	}
+
+	private void publish(int newValue) {
+		reclaim();
+		Version next = free.pollFirst();
+		if(next == null) {
+			next = new Version();
+		} else {
+			recycledVersions++;
+		}
+		next.value = newValue;
+		Version old = current;
+		current = next;
+		old.retiredAt = globalEpoch.incrementAndGet();
+		retired.addLast(old);
+	}
+
+	// Versions are retired in epoch order, so only the head of the queue has to be checked
+	private void reclaim() {
+		if(retired.isEmpty()) {
+			return;
+		}
+		long oldestActive = QUIESCENT;
+		boolean ownerEnded = false;
+		for(ReaderSlot readerSlot : slots) {
+			oldestActive = Math.min(oldestActive, readerSlot.epoch);
+			ownerEnded |= readerSlot.ownerEnded();
+		}
+		if(ownerEnded) {
+			// an ended thread left its slot quiescent, so it does not change oldestActive
+			slots.removeIf(ReaderSlot::ownerEnded);
+		}
+		while(!retired.isEmpty() && retired.peekFirst().retiredAt <= oldestActive) {
+			free.addLast(retired.pollFirst());
+		}
+	}
+
+	private ReaderSlot newSlot() {
+		ReaderSlot readerSlot = new ReaderSlot(Thread.currentThread());
+		slots.add(readerSlot);
+		return readerSlot;
+	}
+
+	private static class Version {
+
+		private int value;
+		private long retiredAt;
+	}
+
+	// Fields of a superclass are laid out before those of its subclass, so the epoch of a reader
+	// thread sits between the padding of SlotPadding and of ReaderSlot, alone on its cache line
+	private static class SlotPadding {
+
+		long p1, p2, p3, p4, p5, p6, p7;
+	}
+
+	private static class SlotEpoch extends SlotPadding {
+
+		volatile long epoch = QUIESCENT;
+	}
+
+	private static class ReaderSlot extends SlotEpoch {
+
+		private static final VarHandle EPOCH;
+
+		static {
+			try {
+				EPOCH = MethodHandles.lookup().findVarHandle(SlotEpoch.class, "epoch", long.class);
+			} catch (ReflectiveOperationException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+
+		long q1, q2, q3, q4, q5, q6, q7;
+		private final WeakReference<Thread> owner;
+
+		ReaderSlot(Thread owner) {
+			this.owner = new WeakReference<>(owner);
+		}
+
+		boolean ownerEnded() {
+			Thread thread = owner.get();
+			return thread == null || !thread.isAlive();
+		}
+	}
+}
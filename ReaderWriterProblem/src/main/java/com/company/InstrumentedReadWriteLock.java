@@ -0,0 +1,407 @@
+package com.company;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+// ReadWriteLock wrapper that measures how long threads wait for and hold each of the two locks.
+//
+// Every thread records into its own Recorder (found through a ThreadLocal), so an acquisition
+// costs two System.nanoTime() calls and a few array increments, with no shared writes and no
+// allocation. Waits of a writer longer than the starvation threshold are counted. While a Flight
+// Recorder recording enables them, waits and holds are also timed as LockWait and LockHold events
+// (only those are allocated, the recording's threshold decides which are kept), and a LockSummary
+// event is emitted periodically. startReporting() samples the queue length of a
+// ReentrantReadWriteLock and logs a summary every few seconds.
+//
+// A recorder publishes its counts with a release store after every recording. Reports merge the
+// recorders without stopping them, so they may miss the recording in progress, like any sampled
+// monitoring. Recorders of threads that have ended are folded into one when a report is made.
+//
+// Hold times are measured from the outermost lock() to the matching unlock(); time spent in
+// await() of a Condition counts as holding.
+public class InstrumentedReadWriteLock implements ReadWriteLock {
+
+	private static final long DEFAULT_STARVATION_THRESHOLD_NS = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final EventType WAIT_EVENT = EventType.getEventType(LockEvents.Wait.class);
+	private static final EventType HOLD_EVENT = EventType.getEventType(LockEvents.Hold.class);
+	private static final long QUEUE_SAMPLE_INTERVAL_MS = 10;
+
+	private final String name;
+	private final ReadWriteLock delegate;
+	private final long starvationThresholdNs;
+	private final Lock readLock;
+	private final Lock writeLock;
+
+	private final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(this::newRecorder);
+	// recorders of ended threads, guarded by itself
+	private final Recorder retired = new Recorder(null);
+	private final AtomicLong writerStarvations = new AtomicLong();
+	private final LatencyHistogram queueLength = new LatencyHistogram();
+	private final Runnable emitSummary = this::emitSummary;
+	private ScheduledExecutorService reporter;
+
+	public InstrumentedReadWriteLock(String name, ReadWriteLock delegate) {
+		this(name, delegate, DEFAULT_STARVATION_THRESHOLD_NS);
+	}
+
+	public InstrumentedReadWriteLock(String name, ReadWriteLock delegate, long starvationThresholdNs) {
+		this.name = name;
+		this.delegate = delegate;
+		this.starvationThresholdNs = starvationThresholdNs;
+		this.readLock = new InstrumentedLock(delegate.readLock(), false);
+		this.writeLock = new InstrumentedLock(delegate.writeLock(), true);
+	}
+
+	@Override
+	public Lock readLock() {
+		return readLock;
+	}
+
+	@Override
+	public Lock writeLock() {
+		return writeLock;
+	}
+
+	public synchronized void startReporting(long reportIntervalSec) {
+		if(reporter != null) {
+			return;
+		}
+		reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "InstrumentedReadWriteLock-" + name);
+			thread.setDaemon(true);
+			return thread;
+		});
+		if(delegate instanceof ReentrantReadWriteLock) {
+			reporter.scheduleAtFixedRate(this::sampleQueueLength, 0, QUEUE_SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+		}
+		reporter.scheduleAtFixedRate(() -> AsyncLog.log(report()), reportIntervalSec, reportIntervalSec, TimeUnit.SECONDS);
+		FlightRecorder.addPeriodicEvent(LockEvents.Summary.class, emitSummary);
+	}
+
+	public synchronized void stopReporting() {
+		if(reporter != null) {
+			reporter.shutdownNow();
+			reporter = null;
+			FlightRecorder.removePeriodicEvent(emitSummary);
+		}
+	}
+
+	public LatencyHistogram getReadWaitNs() {
+		return merged(r -> r.readWaitNs);
+	}
+
+	public LatencyHistogram getWriteWaitNs() {
+		return merged(r -> r.writeWaitNs);
+	}
+
+	public LatencyHistogram getReadHoldNs() {
+		return merged(r -> r.readHoldNs);
+	}
+
+	public LatencyHistogram getWriteHoldNs() {
+		return merged(r -> r.writeHoldNs);
+	}
+
+	// Sampled only while reporting and only for a ReentrantReadWriteLock
+	public LatencyHistogram getQueueLength() {
+		LatencyHistogram copy = new LatencyHistogram();
+		synchronized (queueLength) {
+			copy.add(queueLength);
+		}
+		return copy;
+	}
+
+	public long getWriterStarvations() {
+		return writerStarvations.get();
+	}
+
+	public String report() {
+		LatencyHistogram queue = getQueueLength();
+		return "Lock " + name + " queue length mean=" + String.format("%.1f", queue.getMean()) +
+				" max=" + queue.getMax() + ", writer starvations=" + writerStarvations.get() + "\n" +
+				format("  read wait  ", getReadWaitNs()) + "\n" +
+				format("  read hold  ", getReadHoldNs()) + "\n" +
+				format("  write wait ", getWriteWaitNs()) + "\n" +
+				format("  write hold ", getWriteHoldNs());
+	}
+
+	private Recorder newRecorder() {
+		Recorder newRecorder = new Recorder(Thread.currentThread());
+		recorders.add(newRecorder);
+		return newRecorder;
+	}
+
+	private void sampleQueueLength() {
+		int length = ((ReentrantReadWriteLock) delegate).getQueueLength();
+		synchronized (queueLength) {
+			queueLength.record(length);
+		}
+	}
+
+	private void emitSummary() {
+		LatencyHistogram readWait = getReadWaitNs();
+		LatencyHistogram writeWait = getWriteWaitNs();
+		LockEvents.Summary event = new LockEvents.Summary();
+		event.lockName = name;
+		event.readAcquisitions = readWait.getTotalCount();
+		event.writeAcquisitions = writeWait.getTotalCount();
+		event.readWaitP99 = readWait.getValueAtPercentile(99);
+		event.writeWaitP99 = writeWait.getValueAtPercentile(99);
+		event.readHoldP99 = getReadHoldNs().getValueAtPercentile(99);
+		event.writeHoldP99 = getWriteHoldNs().getValueAtPercentile(99);
+		event.maxQueueLength = getQueueLength().getMax();
+		event.writerStarvations = writerStarvations.get();
+		event.commit();
+	}
+
+	private void acquired(boolean write, long waitNs, long now, LockEvents.Wait waitEvent) {
+		Recorder current = recorder.get();
+		if(write) {
+			if(current.writeDepth++ == 0) {
+				current.writeSince = now;
+				current.writeHoldEvent = beginHold();
+			}
+			current.writeWaitNs.record(waitNs);
+			if(waitNs > starvationThresholdNs) {
+				writerStarved(waitNs);
+			}
+		} else {
+			if(current.readDepth++ == 0) {
+				current.readSince = now;
+				current.readHoldEvent = beginHold();
+			}
+			current.readWaitNs.record(waitNs);
+		}
+		current.publish();
+		if(waitEvent != null) {
+			waitEvent.end();
+			if(waitEvent.shouldCommit()) {
+				waitEvent.lockName = name;
+				waitEvent.mode = write ? "write" : "read";
+				waitEvent.commit();
+			}
+		}
+	}
+
+	private void released(boolean write) {
+		Recorder current = recorder.get();
+		LockEvents.Hold holdEvent;
+		if(write) {
+			if(--current.writeDepth > 0) {
+				return;
+			}
+			current.writeHoldNs.record(System.nanoTime() - current.writeSince);
+			holdEvent = current.writeHoldEvent;
+			current.writeHoldEvent = null;
+		} else {
+			if(--current.readDepth > 0) {
+				return;
+			}
+			current.readHoldNs.record(System.nanoTime() - current.readSince);
+			holdEvent = current.readHoldEvent;
+			current.readHoldEvent = null;
+		}
+		current.publish();
+		if(holdEvent != null) {
+			holdEvent.end();
+			if(holdEvent.shouldCommit()) {
+				holdEvent.lockName = name;
+				holdEvent.mode = write ? "write" : "read";
+				holdEvent.commit();
+			}
+		}
+	}
+
+	private static LockEvents.Wait beginWait() {
+		if(!WAIT_EVENT.isEnabled()) {
+			return null;
+		}
+		LockEvents.Wait event = new LockEvents.Wait();
+		event.begin();
+		return event;
+	}
+
+	private static LockEvents.Hold beginHold() {
+		if(!HOLD_EVENT.isEnabled()) {
+			return null;
+		}
+		LockEvents.Hold event = new LockEvents.Hold();
+		event.begin();
+		return event;
+	}
+
+	private void writerStarved(long waitNs) {
+		writerStarvations.incrementAndGet();
+		LockEvents.WriterStarvation event = new LockEvents.WriterStarvation();
+		if(event.isEnabled()) {
+			event.lockName = name;
+			event.waitTime = waitNs;
+			event.commit();
+		}
+	}
+
+	private LatencyHistogram merged(Function<Recorder, LatencyHistogram> histogram) {
+		retireEndedThreads();
+		LatencyHistogram result = new LatencyHistogram();
+		for(Recorder r : recorders) {
+			r.acquire();
+			result.add(histogram.apply(r));
+		}
+		synchronized (retired) {
+			result.add(histogram.apply(retired));
+		}
+		return result;
+	}
+
+	// Everything an ended thread recorded is visible once isAlive() returned false
+	private void retireEndedThreads() {
+		for(Recorder r : recorders) {
+			if(r.ownerEnded() && recorders.remove(r)) {
+				synchronized (retired) {
+					retired.add(r);
+				}
+			}
+		}
+	}
+
+	private static String format(String name, LatencyHistogram histogram) {
+		return name + " us: count=" + histogram.getTotalCount() +
+				" p50=" + micros(histogram.getValueAtPercentile(50)) +
+				" p99=" + micros(histogram.getValueAtPercentile(99)) +
+				" p99.9=" + micros(histogram.getValueAtPercentile(99.9)) +
+				" max=" + micros(histogram.getMax());
+	}
+
+	private static long micros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	// Owned by a single thread
+	private static class Recorder {
+
+		private static final VarHandle RECORDINGS;
+
+		static {
+			try {
+				RECORDINGS = MethodHandles.lookup().findVarHandle(Recorder.class, "recordings", long.class);
+			} catch (ReflectiveOperationException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+
+		private final WeakReference<Thread> owner;
+		private final LatencyHistogram readWaitNs = new LatencyHistogram();
+		private final LatencyHistogram readHoldNs = new LatencyHistogram();
+		private final LatencyHistogram writeWaitNs = new LatencyHistogram();
+		private final LatencyHistogram writeHoldNs = new LatencyHistogram();
+		private int readDepth;
+		private long readSince;
+		private LockEvents.Hold readHoldEvent;
+		private int writeDepth;
+		private long writeSince;
+		private LockEvents.Hold writeHoldEvent;
+		private long recordings;
+
+		Recorder(Thread owner) {
+			this.owner = new WeakReference<>(owner);
+		}
+
+		// Makes everything recorded so far visible to a reader that calls acquire()
+		void publish() {
+			RECORDINGS.setRelease(this, recordings + 1);
+		}
+
+		void acquire() {
+			RECORDINGS.getAcquire(this);
+		}
+
+		boolean ownerEnded() {
+			Thread thread = owner.get();
+			return thread == null || !thread.isAlive();
+		}
+
+		void add(Recorder other) {
+			readWaitNs.add(other.readWaitNs);
+			readHoldNs.add(other.readHoldNs);
+			writeWaitNs.add(other.writeWaitNs);
+			writeHoldNs.add(other.writeHoldNs);
+		}
+	}
+
+	private class InstrumentedLock implements Lock {
+
+		private final Lock lock;
+		private final boolean write;
+
+		InstrumentedLock(Lock lock, boolean write) {
+			this.lock = lock;
+			this.write = write;
+		}
+
+		@Override
+		public void lock() {
+			LockEvents.Wait waitEvent = beginWait();
+			long start = System.nanoTime();
+			lock.lock();
+			long now = System.nanoTime();
+			acquired(write, now - start, now, waitEvent);
+		}
+
+		@Override
+		public void lockInterruptibly() throws InterruptedException {
+			LockEvents.Wait waitEvent = beginWait();
+			long start = System.nanoTime();
+			lock.lockInterruptibly();
+			long now = System.nanoTime();
+			acquired(write, now - start, now, waitEvent);
+		}
+
+		@Override
+		public boolean tryLock() {
+			if(!lock.tryLock()) {
+				return false;
+			}
+			acquired(write, 0, System.nanoTime(), null);
+			return true;
+		}
+
+		@Override
+		public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+			LockEvents.Wait waitEvent = beginWait();
+			long start = System.nanoTime();
+			if(!lock.tryLock(time, unit)) {
+				return false;
+			}
+			long now = System.nanoTime();
+			acquired(write, now - start, now, waitEvent);
+			return true;
+		}
+
+		@Override
+		public void unlock() {
+			lock.unlock();
+			released(write);
+		}
+
+		@Override
+		public Condition newCondition() {
+			return lock.newCondition();
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.company;
+
+// Copy of org.company.LatencyHistogram in ProducerConsumerProblemSimple, which explains how it
+// works. The two modules are built separately.
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long totalCount;
+	private long sum;
+	private long max;
+
+	public void record(long value) {
+		long v = Math.max(0, value);
+		counts[indexOf(v)]++;
+		totalCount++;
+		sum += v;
+		if(v > max) {
+			max = v;
+		}
+	}
+
+	public void add(LatencyHistogram other) {
+		for(int i=0; i<BUCKETS; i++) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		sum += other.sum;
+		max = Math.max(max, other.max);
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		return totalCount == 0 ? 0 : (double) sum / totalCount;
+	}
+
+	// Highest value that falls into the same bucket as the requested percentile
+	public long getValueAtPercentile(double percentile) {
+		long total = 0;
+		for(long count : counts) {
+			total += count;
+		}
+		if(total == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for(int i=0; i<BUCKETS; i++) {
+			seen += counts[i];
+			if(seen >= target) {
+				return Math.min(highestValueIn(i), max);
+			}
+		}
+		return max;
+	}
+
+	static int indexOf(long value) {
+		if(value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+		return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+	}
+
+	static long highestValueIn(int index) {
+		if(index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / HALF_SUB_BUCKETS - 1;
+		long subBucket = index - (long) shift * HALF_SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,102 @@
+package com.company;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+// Flight Recorder events of InstrumentedReadWriteLock, shown under "Reader Writer Locks" in JMC.
+// Waits and holds are timed by the events themselves, so their threshold can be changed in the
+// recording settings like for any JDK event.
+final class LockEvents {
+
+	private LockEvents() {
+	}
+
+	@Name("com.company.LockWait")
+	@Label("Lock Wait")
+	@Category("Reader Writer Locks")
+	@Description("A thread waited long for a read or write lock")
+	@Threshold("1 ms")
+	static class Wait extends Event {
+
+		@Label("Lock")
+		String lockName;
+
+		@Label("Mode")
+		String mode;
+	}
+
+	@Name("com.company.LockHold")
+	@Label("Lock Hold")
+	@Category("Reader Writer Locks")
+	@Description("A read or write lock was held for long")
+	@Threshold("1 ms")
+	static class Hold extends Event {
+
+		@Label("Lock")
+		String lockName;
+
+		@Label("Mode")
+		String mode;
+	}
+
+	@Name("com.company.WriterStarvation")
+	@Label("Writer Starvation")
+	@Category("Reader Writer Locks")
+	@Description("A writer waited longer than the starvation threshold")
+	static class WriterStarvation extends Event {
+
+		@Label("Lock")
+		String lockName;
+
+		@Label("Wait Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long waitTime;
+	}
+
+	@Name("com.company.LockSummary")
+	@Label("Lock Summary")
+	@Category("Reader Writer Locks")
+	@Description("Acquisitions and wait/hold percentiles since the lock was created")
+	@Period("5 s")
+	@StackTrace(false)
+	static class Summary extends Event {
+
+		@Label("Lock")
+		String lockName;
+
+		@Label("Read Acquisitions")
+		long readAcquisitions;
+
+		@Label("Write Acquisitions")
+		long writeAcquisitions;
+
+		@Label("Read Wait p99")
+		@Timespan(Timespan.NANOSECONDS)
+		long readWaitP99;
+
+		@Label("Write Wait p99")
+		@Timespan(Timespan.NANOSECONDS)
+		long writeWaitP99;
+
+		@Label("Read Hold p99")
+		@Timespan(Timespan.NANOSECONDS)
+		long readHoldP99;
+
+		@Label("Write Hold p99")
+		@Timespan(Timespan.NANOSECONDS)
+		long writeHoldP99;
+
+		@Label("Max Queue Length")
+		long maxQueueLength;
+
+		@Label("Writer Starvations")
+		long writerStarvations;
+	}
+}
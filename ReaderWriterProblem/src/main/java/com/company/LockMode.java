@@ -0,0 +1,31 @@
+package com.company;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public enum LockMode {
+
+	READ_WRITE {
+		@Override
+		public DataAccess create() {
+			return new ReadWriteLockDataAccess(new SharedData(), new ReentrantReadWriteLock());
+		}
+	},
+	OPTIMISTIC {
+		@Override
+		public DataAccess create() {
+			return new OptimisticDataAccess();
+		}
+	},
+	EPOCH {
+		@Override
+		public DataAccess create() {
+			return new EpochDataAccess();
+		}
+	};
+
+	public abstract DataAccess create();
+
+	public static LockMode fromName(String name) {
+		return valueOf(name.trim().toUpperCase().replace('-', '_'));
+	}
+}
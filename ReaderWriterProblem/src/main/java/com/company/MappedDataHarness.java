@@ -0,0 +1,108 @@
+package com.company;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Multi-process check of MappedVersionedData.
+//
+// Maps a fresh temporary file, starts READER_PROCESSES reader JVMs on the same file and writes
+// to the record from this process as fast as it can. Every update sets all fields to the next
+// counter value, so each reader checks that no read is torn and that versions and values never
+// go backwards, prints what it saw and exits with 1 on any violation.
+// usage: MappedDataHarness [reader processes] [seconds] [fields]
+public class MappedDataHarness {
+
+	private static final int READER_PROCESSES = 3;
+	private static final int RUN_TIME_SEC = 5;
+	private static final int NUM_FIELDS = 8;
+	private static final long START_TIMEOUT_SEC = 30;
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if(args.length > 0 && args[0].equals("reader")) {
+			System.exit(runReader(Paths.get(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3])));
+		}
+		int processes = args.length > 0 ? Integer.parseInt(args[0]) : READER_PROCESSES;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : RUN_TIME_SEC;
+		int fields = args.length > 2 ? Integer.parseInt(args[2]) : NUM_FIELDS;
+
+		Path file = Files.createTempFile("mapped-data", ".bin");
+		Files.delete(file);
+		int exitCode;
+		try {
+			MappedVersionedData record = MappedVersionedData.open(file, fields);
+			List<Process> readers = new ArrayList<>();
+			for(int i=0; i<processes; i++) {
+				readers.add(startReader(file, fields, seconds));
+			}
+
+			long updates = 0;
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds + START_TIMEOUT_SEC);
+			while(readers.stream().anyMatch(Process::isAlive) && System.nanoTime() < deadline) {
+				int value = (int) ++updates;
+				record.update(values -> Arrays.fill(values, value));
+			}
+
+			int failures = 0;
+			for(Process reader : readers) {
+				if(!reader.waitFor(START_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+					reader.destroyForcibly();
+					failures++;
+				} else if(reader.exitValue() != 0) {
+					failures++;
+				}
+			}
+			System.out.println("Writer made " + updates + " updates, " + failures + " of " + processes + " reader processes failed");
+			exitCode = failures == 0 ? 0 : 1;
+		} finally {
+			Files.deleteIfExists(file);
+		}
+		System.exit(exitCode);
+	}
+
+	private static Process startReader(Path file, int fields, int seconds) throws IOException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), MappedDataHarness.class.getName(),
+				"reader", file.toString(), String.valueOf(fields), String.valueOf(seconds))
+				.inheritIO()
+				.start();
+	}
+
+	private static int runReader(Path file, int fieldCount, int seconds) throws IOException {
+		MappedVersionedData record = MappedVersionedData.open(file, fieldCount);
+		int[] fields = new int[fieldCount];
+		long reads = 0;
+		long torn = 0;
+		long backwards = 0;
+		long lastVersion = 0;
+		int lastValue = 0;
+		long firstVersion = record.read(fields);
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		while(System.nanoTime() < end) {
+			for(int i=0; i<1000; i++) {
+				long version = record.read(fields);
+				for(int field : fields) {
+					if(field != fields[0]) {
+						torn++;
+						break;
+					}
+				}
+				if(version < lastVersion || fields[0] < lastValue) {
+					backwards++;
+				}
+				lastVersion = version;
+				lastValue = fields[0];
+				reads++;
+			}
+		}
+		System.out.println("Reader process " + ProcessHandle.current().pid() + ": " + reads / seconds + " reads/s, saw " +
+				(lastVersion - firstVersion) + " versions, " + torn + " torn, " + backwards + " out of order");
+		return torn == 0 && backwards == 0 ? 0 : 1;
+	}
+}
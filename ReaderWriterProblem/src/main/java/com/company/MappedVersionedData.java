@@ -0,0 +1,118 @@
+package com.company;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+// Seqlock record in a memory-mapped file, shared by every JVM on the host that maps the same file.
+//
+// Layout: [long version][int fieldCount][int unused][int field]...
+// The writer makes the version odd, writes the fields and publishes the next even version with
+// release semantics. Readers load the version with acquire semantics, copy the fields and check
+// the version again, retrying when it was odd or has changed. Readers never write to the file,
+// so any number of reader processes can follow one writer at memory speed.
+//
+// Writers inside one JVM are serialized, but there must be only one writing process. A writer
+// that finds an odd version (its predecessor died mid-update) skips to the next even one, so
+// readers spin on the half-written record only until the new writer's first update.
+public class MappedVersionedData implements VersionedData {
+
+	private static final int VERSION_OFFSET = 0;
+	private static final int FIELD_COUNT_OFFSET = 8;
+	private static final int FIELDS_OFFSET = 16;
+
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+	private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+	private final MappedByteBuffer buffer;
+	private final int fieldCount;
+	private final int[] writerCopy;
+
+	private MappedVersionedData(MappedByteBuffer buffer, int fieldCount) {
+		this.buffer = buffer;
+		this.fieldCount = fieldCount;
+		this.writerCopy = new int[fieldCount];
+		for(int i=0; i<fieldCount; i++) {
+			writerCopy[i] = (int) INTS.getOpaque(buffer, fieldOffset(i));
+		}
+	}
+
+	// Creates the file with fieldCount zero fields or maps an existing one, which must have fieldCount fields
+	public static MappedVersionedData open(Path file, int fieldCount) throws IOException {
+		if(fieldCount < 1) {
+			throw new IllegalArgumentException("Field count must be positive: " + fieldCount);
+		}
+		boolean created = !Files.exists(file);
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FIELDS_OFFSET + (long) Integer.BYTES * fieldCount);
+		}
+		if(created) {
+			INTS.setRelease(buffer, FIELD_COUNT_OFFSET, fieldCount);
+		}
+		int storedFieldCount = (int) INTS.getAcquire(buffer, FIELD_COUNT_OFFSET);
+		if(storedFieldCount != fieldCount) {
+			throw new IllegalStateException(file + " holds " + storedFieldCount + " fields, not " + fieldCount);
+		}
+		return new MappedVersionedData(buffer, fieldCount);
+	}
+
+	@Override
+	public int fieldCount() {
+		return fieldCount;
+	}
+
+	@Override
+	public long read(int[] into) {
+		while(true) {
+			long before = (long) LONGS.getAcquire(buffer, VERSION_OFFSET);
+			if((before & 1) != 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+			for(int i=0; i<fieldCount; i++) {
+				into[i] = (int) INTS.getOpaque(buffer, fieldOffset(i));
+			}
+			// the field loads above must not move below the second version load
+			VarHandle.acquireFence();
+			if((long) LONGS.getOpaque(buffer, VERSION_OFFSET) == before) {
+				return before / 2;
+			}
+		}
+	}
+
+	@Override
+	public synchronized void update(Consumer<int[]> update) {
+		update.accept(writerCopy);
+		long version = (long) LONGS.getOpaque(buffer, VERSION_OFFSET);
+		// updates of this process always end on an even version, an odd one was left by a writer
+		// process that died in the middle of an update. Continuing from it would invert the parity.
+		if((version & 1) != 0) {
+			version++;
+		}
+		LONGS.setOpaque(buffer, VERSION_OFFSET, version + 1);
+		// readers must see the odd version before any of the new fields
+		VarHandle.storeStoreFence();
+		for(int i=0; i<fieldCount; i++) {
+			INTS.setOpaque(buffer, fieldOffset(i), writerCopy[i]);
+		}
+		LONGS.setRelease(buffer, VERSION_OFFSET, version + 2);
+	}
+
+	// Writes the mapped pages to the file, not needed for other processes to see the values
+	public void force() {
+		buffer.force();
+	}
+
+	private static int fieldOffset(int field) {
+		return FIELDS_OFFSET + Integer.BYTES * field;
+	}
+}
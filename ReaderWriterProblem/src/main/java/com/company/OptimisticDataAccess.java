@@ -0,0 +1,48 @@
+package com.company;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntUnaryOperator;
+
+// Readers don't write any shared state: they read the value under an optimistic stamp and only
+// take the read lock when a writer got in between. The value is a plain field, the
+// StampedLock alone makes it safe, so there is no second lock like SharedData's monitor.
+public class OptimisticDataAccess implements DataAccess {
+
+	private final StampedLock lock = new StampedLock();
+	private int sharedValue;
+
+	@Override
+	public int read() {
+		long stamp = lock.tryOptimisticRead();
+		int value = sharedValue;
+		if(!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				value = sharedValue;
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return value;
+	}
+
+	@Override
+	public void write(int newValue) {
+		long stamp = lock.writeLock();
+		try {
+			sharedValue = newValue;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	@Override
+	public void update(IntUnaryOperator update) {
+		long stamp = lock.writeLock();
+		try {
+			sharedValue = update.applyAsInt(sharedValue);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Reads per second of every LockMode (the ReadWriteLock path, optimistic and epoch reads)
+// for 1 to 32 reader threads, next to one writer that writes every WRITE_INTERVAL_NS.
+// No artificial sleeps on the reader side.
+// usage: ReadThroughputBenchmark [mode...]
+public class ReadThroughputBenchmark {
+
+	private static final int[] READER_COUNTS = {1, 2, 4, 8, 16, 32};
+	private static final long MEASURE_TIME_MS = 2000;
+	private static final long WRITE_INTERVAL_NS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	// keeps the JIT from dropping reads whose result is never used
+	private static volatile int sink;
+
+	public static void main(String[] args) throws InterruptedException {
+		LockMode[] modes = LockMode.values();
+		if(args.length > 0) {
+			modes = new LockMode[args.length];
+			for(int i=0; i<args.length; i++) {
+				modes[i] = LockMode.fromName(args[i]);
+			}
+		}
+		StringBuilder header = new StringBuilder(String.format("%8s", "readers"));
+		for(LockMode mode : modes) {
+			header.append(String.format(" %16s", mode.name().toLowerCase().replace('_', '-') + " reads/s"));
+		}
+		System.out.println(header);
+		for(int readers : READER_COUNTS) {
+			StringBuilder row = new StringBuilder(String.format("%8d", readers));
+			for(LockMode mode : modes) {
+				row.append(String.format(" %16d", measure(mode.create(), readers)));
+			}
+			System.out.println(row);
+		}
+	}
+
+	// Returns reads per second
+	private static long measure(DataAccess data, int readers) throws InterruptedException {
+		LongAdder reads = new LongAdder();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+
+		threads.add(new Thread(() -> {
+			awaitStart(start);
+			int value = 0;
+			while(!Thread.currentThread().isInterrupted()) {
+				data.write(value++);
+				LockSupport.parkNanos(WRITE_INTERVAL_NS);
+			}
+		}));
+		for(int i=0; i<readers; i++) {
+			threads.add(new Thread(() -> {
+				awaitStart(start);
+				long count = 0;
+				int sum = 0;
+				while(!Thread.currentThread().isInterrupted()) {
+					sum += data.read();
+					count++;
+				}
+				sink = sum;
+				reads.add(count);
+			}));
+		}
+		for(Thread thread : threads) {
+			thread.start();
+		}
+		start.countDown();
+		Thread.sleep(MEASURE_TIME_MS);
+		for(Thread thread : threads) {
+			thread.interrupt();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		return reads.sum() * TimeUnit.SECONDS.toMillis(1) / MEASURE_TIME_MS;
+	}
+
+	private static void awaitStart(CountDownLatch start) {
+		try {
+			start.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.company;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.IntUnaryOperator;
+
+// The original scheme: a ReadWriteLock around the synchronized SharedData
+public class ReadWriteLockDataAccess implements DataAccess {
+
+	private final SharedData sharedObj;
+	private final ReadWriteLock lock;
+
+	public ReadWriteLockDataAccess(SharedData sharedObj, ReadWriteLock lock) {
+		this.sharedObj = sharedObj;
+		this.lock = lock;
+	}
+
+	@Override
+	public int read() {
+		lock.readLock().lock();
+		try {
+			return sharedObj.read();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void write(int newValue) {
+		lock.writeLock().lock();
+		try {
+			sharedObj.write(newValue);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void update(IntUnaryOperator update) {
+		lock.writeLock().lock();
+		try {
+			sharedObj.write(update.applyAsInt(sharedObj.read()));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
@@ -1,20 +1,42 @@
 package com.company;
 
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.locks.ReadWriteLock;
 
 public class Reader implements Runnable {
 
 	private static final int MAX_WAIT_TIME_SEC = 3;
 
-	private SharedData sharedObj;
-	private ReadWriteLock lock;
+	private DataAccess data;
+	private VersionedData record;
+	private int[] fields;
+	private StripedData keyed;
 	private int id;
 
 	public Reader(int id, SharedData sharedObj, ReadWriteLock lock) {
+		this(id, new ReadWriteLockDataAccess(sharedObj, lock));
+	}
+
+	public Reader(int id, DataAccess data) {
 		this.id = id;
-		this.sharedObj = sharedObj;
-		this.lock = lock;
+		this.data = data;
+
+		new Thread(this).start();
+	}
+
+	public Reader(int id, VersionedData record) {
+		this.id = id;
+		this.record = record;
+		this.fields = new int[record.fieldCount()];
+
+		new Thread(this).start();
+	}
+
+	public Reader(int id, StripedData keyed) {
+		this.id = id;
+		this.keyed = keyed;
 
 		new Thread(this).start();
 	}
@@ -22,19 +44,36 @@ public class Reader implements Runnable {
 	@Override
 	public void run() {
 		while(true) {
-			lock.readLock().lock();
-			try {
-				int newValue = sharedObj.read();
+			if(record != null) {
+				long version = record.read(fields);
+				logRecordRead(version);
+			} else if(keyed != null) {
+				int key = ThreadLocalRandom.current().nextInt(keyed.keyCount());
+				logKeyRead(key, keyed.read(key));
+			} else {
+				int newValue = data.read();
 				logReadMade(newValue);
-			} finally {
-				lock.readLock().unlock();
 			}
 			waitRandomTime();
 		}
 	}
 
 	private void logReadMade(int value) {
-		System.out.println("Reader thread " + id + " has read value " + value);
+		AsyncLog.log("Reader thread " + id + " has read value " + value);
+	}
+
+	private void logKeyRead(int key, int value) {
+		AsyncLog.log("Reader thread " + id + " has read value " + value + " of key " + key);
+	}
+
+	// Writer sets all fields to the same value, anything else would be a torn read
+	private void logRecordRead(long version) {
+		boolean consistent = true;
+		for(int field : fields) {
+			consistent &= field == fields[0];
+		}
+		AsyncLog.log("Reader thread " + id + " has read version " + version + " " + Arrays.toString(fields) +
+				(consistent ? "" : " - TORN"));
 	}
 
 	private void waitRandomTime() {
@@ -1,24 +1,107 @@
 package com.company;
 
-import java.util.concurrent.locks.ReadWriteLock;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class ReaderWriterDemo {
 
 	private static final int NUM_READER_THREADS = 3;
+	private static final int NUM_RECORD_FIELDS = 4;
+	private static final int NUM_STRIPES = 16;
+	private static final String MAPPED_FILE = "shared-data";
 
-	private SharedData sharedObj = new SharedData();
-	private ReadWriteLock lock = new ReentrantReadWriteLock();
+	private DataAccess data;
+	private VersionedData record;
+	private StripedData keyed;
 
-	public static void main(String[] args) {
-		new ReaderWriterDemo().runDemo();
+	public ReaderWriterDemo(DataAccess data) {
+		this.data = data;
 	}
 
-	private void runDemo() {
-		new Writer(0, sharedObj, lock);
+	public ReaderWriterDemo(VersionedData record) {
+		this.record = record;
+	}
+
+	public ReaderWriterDemo(StripedData keyed) {
+		this.keyed = keyed;
+	}
+
+	// usage: ReaderWriterDemo [option=value ...]
+	//   mode=read-write|optimistic|epoch
+	//   readers=<count>
+	//   coalesce=true (writers go through a last-write-wins CoalescingDataAccess)
+	//   profile=<report interval in seconds> (mode=read-write only, wraps the lock in InstrumentedReadWriteLock)
+	//   record=seqlock|copy-on-write|mapped (shares a multi-field record instead of one value, mode is ignored)
+	//   file=<path> (record=mapped only, every process mapping the same file shares the record;
+	//                run one process with readers=0 and the others with writers=0)
+	//   fields=<number of record fields>
+	//   keys=<count> (shares that many independent values in StripedData, readers and writers pick keys at random)
+	//   stripes=<power of two>
+	//   writers=<count>
+	public static void main(String[] args) throws IOException {
+		int readers = Integer.parseInt(option(args, "readers", String.valueOf(NUM_READER_THREADS)));
+		int writers = Integer.parseInt(option(args, "writers", "1"));
+		String updateMode = option(args, "record", null);
+		String keys = option(args, "keys", null);
+		if(keys != null) {
+			int stripes = Integer.parseInt(option(args, "stripes", String.valueOf(NUM_STRIPES)));
+			new ReaderWriterDemo(new StripedData(Integer.parseInt(keys), stripes)).runDemo(readers, writers);
+		} else if("mapped".equals(updateMode)) {
+			int fields = Integer.parseInt(option(args, "fields", String.valueOf(NUM_RECORD_FIELDS)));
+			MappedVersionedData mapped = MappedVersionedData.open(Paths.get(option(args, "file", MAPPED_FILE)), fields);
+			new ReaderWriterDemo(mapped).runDemo(readers, writers);
+		} else if(updateMode != null) {
+			int fields = Integer.parseInt(option(args, "fields", String.valueOf(NUM_RECORD_FIELDS)));
+			new ReaderWriterDemo(UpdateMode.fromName(updateMode).create(fields)).runDemo(readers, writers);
+		} else {
+			LockMode mode = LockMode.fromName(option(args, "mode", "read-write"));
+			long profileIntervalSec = Long.parseLong(option(args, "profile", "0"));
+			DataAccess data = profileIntervalSec > 0 ? profiledData(mode, profileIntervalSec) : mode.create();
+			if(Boolean.parseBoolean(option(args, "coalesce", "false"))) {
+				data = CoalescingDataAccess.lastWriteWins(data);
+			}
+			new ReaderWriterDemo(data).runDemo(readers, writers);
+		}
+	}
+
+	private void runDemo(int readers, int writers) {
+		for(int i=0; i<writers; i++) {
+			if(keyed != null) {
+				new Writer(i, keyed);
+			} else if(record != null) {
+				new Writer(i, record);
+			} else {
+				new Writer(i, data);
+			}
+		}
+
+		for(int i=0; i<readers; i++) {
+			if(keyed != null) {
+				new Reader(i, keyed);
+			} else if(record != null) {
+				new Reader(i, record);
+			} else {
+				new Reader(i, data);
+			}
+		}
+	}
+
+	private static DataAccess profiledData(LockMode mode, long reportIntervalSec) {
+		if(mode != LockMode.READ_WRITE) {
+			throw new IllegalArgumentException("Lock profiling needs mode=read-write");
+		}
+		InstrumentedReadWriteLock lock = new InstrumentedReadWriteLock("sharedData", new ReentrantReadWriteLock());
+		lock.startReporting(reportIntervalSec);
+		return new ReadWriteLockDataAccess(new SharedData(), lock);
+	}
 
-		for(int i=0; i<NUM_READER_THREADS; i++) {
-			new Reader(i, sharedObj, lock);
+	private static String option(String[] args, String name, String defaultValue) {
+		for(String arg : args) {
+			if(arg.startsWith(name + "=")) {
+				return arg.substring(name.length() + 1);
+			}
 		}
+		return defaultValue;
 	}
 }
@@ -0,0 +1,55 @@
+package com.company;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Sequence lock: the version is odd while a writer is in the middle of an update.
+// A reader copies the fields between two reads of the version and starts over when the
+// version was odd or has changed, so readers never write to shared memory and never block
+// writers. The fields are volatile reads and writes (AtomicIntegerArray) so they cannot be
+// reordered around the version checks.
+public class SeqLockData implements VersionedData {
+
+	private final AtomicLong version = new AtomicLong();
+	private final AtomicIntegerArray fields;
+	private final int[] writerCopy;
+
+	public SeqLockData(int fieldCount) {
+		this.fields = new AtomicIntegerArray(fieldCount);
+		this.writerCopy = new int[fieldCount];
+	}
+
+	@Override
+	public int fieldCount() {
+		return writerCopy.length;
+	}
+
+	@Override
+	public long read(int[] into) {
+		while(true) {
+			long before = version.get();
+			if((before & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+			for(int i=0; i<writerCopy.length; i++) {
+				into[i] = fields.get(i);
+			}
+			if(version.get() == before) {
+				return before / 2;
+			}
+		}
+	}
+
+	// Writers are serialized, readers only ever retry
+	@Override
+	public synchronized void update(Consumer<int[]> update) {
+		update.accept(writerCopy);
+		version.incrementAndGet();
+		for(int i=0; i<writerCopy.length; i++) {
+			fields.set(i, writerCopy[i]);
+		}
+		version.incrementAndGet();
+	}
+}
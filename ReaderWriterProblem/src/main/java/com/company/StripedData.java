@@ -0,0 +1,105 @@
+package com.company;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntUnaryOperator;
+
+// Many independent int values, one per key in [0, keyCount), split into a power-of-two
+// number of stripes. Every stripe is its own padded StampedLock with its own int[] of the
+// values of its keys (key & mask picks the stripe, key >>> shift the slot), so threads
+// working on different stripes share neither a lock, an array nor a cache line. Readers use
+// optimistic reads like OptimisticDataAccess and fall back to the stripe's read lock on conflict.
+public class StripedData {
+
+	private final Stripe[] stripes;
+	private final int mask;
+	private final int shift;
+	private final int keyCount;
+
+	public StripedData(int keyCount, int stripeCount) {
+		if(stripeCount < 1 || Integer.bitCount(stripeCount) != 1) {
+			throw new IllegalArgumentException("Stripe count must be a power of two: " + stripeCount);
+		}
+		if(keyCount < 1) {
+			throw new IllegalArgumentException("Key count must be positive: " + keyCount);
+		}
+		this.keyCount = keyCount;
+		this.mask = stripeCount - 1;
+		this.shift = Integer.numberOfTrailingZeros(stripeCount);
+		this.stripes = new Stripe[stripeCount];
+		for(int i=0; i<stripeCount; i++) {
+			// allocated one after another, the padding of Stripe only works in that order
+			stripes[i] = new Stripe((keyCount + stripeCount - 1 - i) / stripeCount);
+		}
+	}
+
+	public int keyCount() {
+		return keyCount;
+	}
+
+	public int stripeCount() {
+		return stripes.length;
+	}
+
+	public int read(int key) {
+		Stripe stripe = stripeOf(key);
+		int slot = key >>> shift;
+		long stamp = stripe.tryOptimisticRead();
+		int value = stripe.values[slot];
+		if(!stripe.validate(stamp)) {
+			stamp = stripe.readLock();
+			try {
+				value = stripe.values[slot];
+			} finally {
+				stripe.unlockRead(stamp);
+			}
+		}
+		return value;
+	}
+
+	public void write(int key, int newValue) {
+		Stripe stripe = stripeOf(key);
+		long stamp = stripe.writeLock();
+		try {
+			stripe.values[key >>> shift] = newValue;
+		} finally {
+			stripe.unlockWrite(stamp);
+		}
+	}
+
+	// Read-modify-write of one key, returns the new value
+	public int update(int key, IntUnaryOperator update) {
+		Stripe stripe = stripeOf(key);
+		int slot = key >>> shift;
+		long stamp = stripe.writeLock();
+		try {
+			int newValue = update.applyAsInt(stripe.values[slot]);
+			stripe.values[slot] = newValue;
+			return newValue;
+		} finally {
+			stripe.unlockWrite(stamp);
+		}
+	}
+
+	private Stripe stripeOf(int key) {
+		if(key < 0 || key >= keyCount) {
+			throw new IndexOutOfBoundsException("Key " + key + " outside [0, " + keyCount + ")");
+		}
+		return stripes[key & mask];
+	}
+
+	// The stripe is its own lock. The padding fields after the lock state and the unused ints at
+	// the end of the values array keep the lock state off the cache lines of the neighbouring
+	// stripes, whose values are written by other writers.
+	private static class Stripe extends StampedLock {
+
+		private static final long serialVersionUID = 1L;
+		private static final int VALUES_PADDING = 16;
+
+		long p1, p2, p3, p4, p5, p6, p7;
+		private final int[] values;
+
+		Stripe(int size) {
+			this.values = new int[size + VALUES_PADDING];
+		}
+	}
+}
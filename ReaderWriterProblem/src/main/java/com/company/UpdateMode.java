@@ -0,0 +1,23 @@
+package com.company;
+
+public enum UpdateMode {
+
+	SEQLOCK {
+		@Override
+		public VersionedData create(int fieldCount) {
+			return new SeqLockData(fieldCount);
+		}
+	},
+	COPY_ON_WRITE {
+		@Override
+		public VersionedData create(int fieldCount) {
+			return new CopyOnWriteData(fieldCount);
+		}
+	};
+
+	public abstract VersionedData create(int fieldCount);
+
+	public static UpdateMode fromName(String name) {
+		return valueOf(name.trim().toUpperCase().replace('-', '_'));
+	}
+}
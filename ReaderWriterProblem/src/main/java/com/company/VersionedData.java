@@ -0,0 +1,16 @@
+package com.company;
+
+import java.util.function.Consumer;
+
+// Record of several int fields that readers always see as a whole: no reader can see
+// some fields of one update and some of another. Every update gets the next version.
+public interface VersionedData {
+
+	int fieldCount();
+
+	// Copies a consistent view of all fields into fields and returns its version
+	long read(int[] fields);
+
+	// Applies update to a copy of the current fields and publishes all of them at once
+	void update(Consumer<int[]> update);
+}
@@ -0,0 +1,98 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Writers writing as fast as they can next to READERS readers, once writing straight through
+// the ReadWriteLock and once through a CoalescingDataAccess in front of it.
+// Prints writes, exclusive lock acquisitions and reads per second for 1 to 16 writers.
+// usage: WriteCoalescingBenchmark [mode]
+public class WriteCoalescingBenchmark {
+
+	private static final int[] WRITER_COUNTS = {1, 2, 4, 8, 16};
+	private static final int READERS = 4;
+	private static final long MEASURE_TIME_MS = 2000;
+
+	private static volatile int sink;
+
+	public static void main(String[] args) throws InterruptedException {
+		LockMode mode = args.length > 0 ? LockMode.fromName(args[0]) : LockMode.READ_WRITE;
+		System.out.println(String.format("%8s | %14s %14s %14s | %14s %14s %14s", "writers",
+				"writes/s", "locks/s", "reads/s", "coal. writes/s", "coal. locks/s", "coal. reads/s"));
+		for(int writers : WRITER_COUNTS) {
+			Result direct = measure(mode.create(), null, writers);
+			CoalescingDataAccess coalescing = CoalescingDataAccess.lastWriteWins(mode.create());
+			Result coalesced = measure(coalescing, coalescing, writers);
+			System.out.println(String.format("%8d | %14d %14d %14d | %14d %14d %14d", writers,
+					direct.writes, direct.lockAcquisitions, direct.reads,
+					coalesced.writes, coalesced.lockAcquisitions, coalesced.reads));
+		}
+	}
+
+	private static Result measure(DataAccess data, CoalescingDataAccess coalescing, int writers) throws InterruptedException {
+		LongAdder writes = new LongAdder();
+		LongAdder reads = new LongAdder();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+
+		for(int i=0; i<writers; i++) {
+			threads.add(new Thread(() -> {
+				awaitStart(start);
+				long count = 0;
+				while(!Thread.currentThread().isInterrupted()) {
+					data.write((int) count++);
+				}
+				writes.add(count);
+			}));
+		}
+		for(int i=0; i<READERS; i++) {
+			threads.add(new Thread(() -> {
+				awaitStart(start);
+				long count = 0;
+				int sum = 0;
+				while(!Thread.currentThread().isInterrupted()) {
+					sum += data.read();
+					count++;
+				}
+				sink = sum;
+				reads.add(count);
+			}));
+		}
+		for(Thread thread : threads) {
+			thread.start();
+		}
+		start.countDown();
+		Thread.sleep(MEASURE_TIME_MS);
+		for(Thread thread : threads) {
+			thread.interrupt();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		long perSecond = TimeUnit.SECONDS.toMillis(1);
+		Result result = new Result();
+		result.writes = writes.sum() * perSecond / MEASURE_TIME_MS;
+		result.reads = reads.sum() * perSecond / MEASURE_TIME_MS;
+		long acquisitions = coalescing != null ? coalescing.getAppliedBatches() : writes.sum();
+		result.lockAcquisitions = acquisitions * perSecond / MEASURE_TIME_MS;
+		return result;
+	}
+
+	private static void awaitStart(CountDownLatch start) {
+		try {
+			start.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class Result {
+
+		private long writes;
+		private long lockAcquisitions;
+		private long reads;
+	}
+}
@@ -1,6 +1,8 @@
 package com.company;
 
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.locks.ReadWriteLock;
 
 public class Writer implements Runnable {
@@ -8,14 +10,32 @@ public class Writer implements Runnable {
 	private static final int MAX_WAIT_TIME_SEC = 3;
 	private static final int MAX_VALUE_TO_GENERATE = 1000;
 
-	private SharedData sharedObj;
-	private ReadWriteLock lock;
+	private DataAccess data;
+	private VersionedData record;
+	private StripedData keyed;
 	private int id;
 
 	public Writer(int id, SharedData sharedObj, ReadWriteLock lock) {
+		this(id, new ReadWriteLockDataAccess(sharedObj, lock));
+	}
+
+	public Writer(int id, DataAccess data) {
+		this.id = id;
+		this.data = data;
+
+		new Thread(this).start();
+	}
+
+	public Writer(int id, VersionedData record) {
 		this.id = id;
-		this.sharedObj = sharedObj;
-		this.lock = lock;
+		this.record = record;
+
+		new Thread(this).start();
+	}
+
+	public Writer(int id, StripedData keyed) {
+		this.id = id;
+		this.keyed = keyed;
 
 		new Thread(this).start();
 	}
@@ -23,20 +43,32 @@ public class Writer implements Runnable {
 	@Override
 	public void run() {
 		while(true) {
-			lock.writeLock().lock();
-			try {
-				int newValue = generateValue();
-				sharedObj.write(newValue);
-				logWriteMade(newValue);
-			} finally {
-				lock.writeLock().unlock();
+			int newValue = generateValue();
+			// the line is queued inside the write, so no reader can log the new value before it
+			if(record != null) {
+				record.update(fields -> {
+					Arrays.fill(fields, newValue);
+					logWriteMade(newValue);
+				});
+			} else if(keyed != null) {
+				int key = ThreadLocalRandom.current().nextInt(keyed.keyCount());
+				keyed.update(key, current -> {
+					logKeyWritten(key, newValue);
+					return newValue;
+				});
+			} else {
+				data.write(newValue, () -> logWriteMade(newValue));
 			}
 			waitRandomTime();
 		}
 	}
 
 	private void logWriteMade(int value) {
-		System.out.println("Writer thread " + id + " has written value " + value);
+		AsyncLog.log("Writer thread " + id + " has written value " + value);
+	}
+
+	private void logKeyWritten(int key, int value) {
+		AsyncLog.log("Writer thread " + id + " has written value " + value + " to key " + key);
 	}
 
 	private void waitRandomTime() {
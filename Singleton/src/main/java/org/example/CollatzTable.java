@@ -0,0 +1,79 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Example of a singleton with expensive immutable state: the number of Collatz steps needed to
+// reach 1 from every n below SIZE. Building it takes a few hundred milliseconds, so it is kept
+// in a snapshot (see Snapshots) in the directory given by the singleton.snapshot.dir system
+// property, java.io.tmpdir by default. singleton.snapshot.dir=none always builds it.
+public class CollatzTable {
+
+    public static final int SIZE = 1 << 21;
+    private static final String SNAPSHOT_FILE = "collatz-table.snapshot";
+
+    // a heap buffer when built, a view of the mapped snapshot when loaded
+    private final IntBuffer steps;
+
+    private CollatzTable(IntBuffer steps) {
+        this.steps = steps;
+    }
+
+    public static CollatzTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // 1 <= n < SIZE
+    public int stepsFrom(int n) {
+        return steps.get(n);
+    }
+
+    static CollatzTable build() {
+        int[] steps = new int[SIZE];
+        for(int n=2; n<SIZE; n++) {
+            long value = n;
+            int count = 0;
+            while(value != 1) {
+                value = (value & 1) == 0 ? value >>> 1 : 3 * value + 1;
+                count++;
+            }
+            steps[n] = count;
+        }
+        return new CollatzTable(IntBuffer.wrap(steps));
+    }
+
+    static Path snapshotFile() {
+        String directory = System.getProperty("singleton.snapshot.dir", System.getProperty("java.io.tmpdir"));
+        return "none".equals(directory) ? null : Paths.get(directory, SNAPSHOT_FILE);
+    }
+
+    static class Codec implements SnapshotCodec<CollatzTable> {
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public int size(CollatzTable table) {
+            return Integer.BYTES * table.steps.capacity();
+        }
+
+        @Override
+        public void write(CollatzTable table, ByteBuffer out) {
+            out.asIntBuffer().put(table.steps.duplicate().clear());
+        }
+
+        @Override
+        public CollatzTable read(ByteBuffer in) {
+            return new CollatzTable(in.asIntBuffer());
+        }
+    }
+
+    private static class Holder {
+
+        private static final CollatzTable INSTANCE = Snapshots.loadOrBuild(snapshotFile(), new Codec(), CollatzTable::build);
+    }
+}
@@ -0,0 +1,30 @@
+package org.example;
+
+// Singleton's double checked locking with the constructor-set field the stress harness checks,
+// Singleton itself stays the plain example from the README
+public class DoubleCheckedSingleton {
+
+    private volatile static DoubleCheckedSingleton instance;
+    // set only by the constructor, see SingletonVariant
+    private int[] state;
+
+    private DoubleCheckedSingleton() {
+        state = new int[]{1, 2, 3};
+    }
+
+    public static DoubleCheckedSingleton getInstance() {
+        if(instance == null) {
+            synchronized (DoubleCheckedSingleton.class) {
+                if(instance == null) {
+                    instance = new DoubleCheckedSingleton();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public boolean isFullyConstructed() {
+        int[] current = state;
+        return current != null && current.length == 3 && current[2] == 3;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example;
+
+// The instance is created when the enum class is initialized. Serialization and reflection
+// can not create a second one.
+public enum EnumSingleton {
+
+    INSTANCE;
+
+    // set only by the constructor, see SingletonVariant
+    private int[] state;
+
+    EnumSingleton() {
+        state = new int[]{1, 2, 3};
+    }
+
+    public static EnumSingleton getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isFullyConstructed() {
+        int[] current = state;
+        return current != null && current.length == 3 && current[2] == 3;
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+// A copy of a singleton class loaded by its own class loader, so the copy is not initialized yet
+// and the first getInstance() creates its instance. The copy shares nothing with the class loaded
+// normally. Close it when done, that closes the class loader and the jar it may keep open.
+public class FreshCopy implements AutoCloseable {
+
+    private final URLClassLoader loader;
+    private final Class<?> copy;
+    private final MethodHandle getInstance;
+    private MethodHandle isFullyConstructed;
+
+    // type is any class in this module with a static getInstance()
+    public FreshCopy(Class<?> type) {
+        URL classes = type.getProtectionDomain().getCodeSource().getLocation();
+        // no parent besides the bootstrap loader, so org.example classes are loaded again
+        loader = new URLClassLoader(new URL[]{classes}, null);
+        try {
+            copy = Class.forName(type.getName(), false, loader);
+            getInstance = MethodHandles.publicLookup()
+                    .findStatic(copy, "getInstance", MethodType.methodType(copy))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            close();
+            throw new IllegalStateException("Can not load " + type.getName() + " from " + classes, e);
+        }
+    }
+
+    public Object getInstance() {
+        try {
+            return (Object) getInstance.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // isFullyConstructed() of an instance of the copy, see SingletonVariant
+    public boolean isFullyConstructed(Object instance) {
+        try {
+            return (boolean) isFullyConstructedHandle().invokeExact(instance);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            loader.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private synchronized MethodHandle isFullyConstructedHandle() throws ReflectiveOperationException {
+        if(isFullyConstructed == null) {
+            isFullyConstructed = MethodHandles.publicLookup()
+                    .findVirtual(copy, "isFullyConstructed", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+        }
+        return isFullyConstructed;
+    }
+}
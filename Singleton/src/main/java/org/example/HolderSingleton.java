@@ -0,0 +1,28 @@
+package org.example;
+
+// Lazy through class initialization: Holder is initialized, and the instance created, on the
+// first getInstance(). The JVM makes class initialization thread safe, and afterwards
+// getInstance() is a plain static final read.
+public class HolderSingleton {
+
+    // set only by the constructor, see SingletonVariant
+    private int[] state;
+
+    private HolderSingleton() {
+        state = new int[]{1, 2, 3};
+    }
+
+    public static HolderSingleton getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public boolean isFullyConstructed() {
+        int[] current = state;
+        return current != null && current.length == 3 && current[2] == 3;
+    }
+
+    private static class Holder {
+
+        private static final HolderSingleton INSTANCE = new HolderSingleton();
+    }
+}
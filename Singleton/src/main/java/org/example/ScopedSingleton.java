@@ -0,0 +1,69 @@
+package org.example;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// One instance per scope: run() and call() create an instance, make it what get() returns for the
+// duration of the task and clean it up when the task ends. Scopes can be nested; the inner scope
+// gets its own instance and the outer one is visible again afterwards.
+//
+// A scope is bound to the thread that opened it, so a task should not hand get() results over to
+// other threads. Unlike ThreadLocalSingleton nothing outlives the scope, which suits short tasks
+// such as one request, and pooled or virtual threads never keep stale instances.
+// The binding follows java.lang.ScopedValue, which can replace the ThreadLocal below once it is
+// available without preview flags.
+public class ScopedSingleton<T> {
+
+    private final Supplier<? extends T> factory;
+    private final Consumer<? super T> cleanup;
+    private final ThreadLocal<T> bound = new ThreadLocal<>();
+
+    public ScopedSingleton(Supplier<? extends T> factory, Consumer<? super T> cleanup) {
+        this.factory = factory;
+        this.cleanup = cleanup;
+    }
+
+    public void run(Runnable task) {
+        T outer = bound.get();
+        T scoped = factory.get();
+        bound.set(scoped);
+        try {
+            task.run();
+        } finally {
+            unbind(outer, scoped);
+        }
+    }
+
+    public <R> R call(Callable<R> task) throws Exception {
+        T outer = bound.get();
+        T scoped = factory.get();
+        bound.set(scoped);
+        try {
+            return task.call();
+        } finally {
+            unbind(outer, scoped);
+        }
+    }
+
+    public boolean isBound() {
+        return bound.get() != null;
+    }
+
+    public T get() {
+        T scoped = bound.get();
+        if(scoped == null) {
+            throw new IllegalStateException("get() called outside of run() or call()");
+        }
+        return scoped;
+    }
+
+    private void unbind(T outer, T scoped) {
+        if(outer == null) {
+            bound.remove();
+        } else {
+            bound.set(outer);
+        }
+        cleanup.accept(scoped);
+    }
+}
@@ -0,0 +1,139 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Lazily built singletons looked up by type.
+//
+// Each singleton is built once, on first get() or during prewarm(), with the same double checked
+// locking as Singleton.getInstance(), but with one lock per singleton. After that a lookup is a
+// ConcurrentHashMap read and a volatile read, without locking.
+// Dependencies have to be registered before the singletons that use them, so there can be no cycles.
+// They are built before the singleton that declares them, and a factory gets them with get().
+public class SingletonRegistry {
+
+    private final Map<Class<?>, Entry<?>> entries = new ConcurrentHashMap<>();
+    // registration order, every entry comes after its dependencies
+    private final List<Entry<?>> ordered = new CopyOnWriteArrayList<>();
+
+    public synchronized <T> void register(Class<T> type, Supplier<? extends T> factory, Class<?>... dependencies) {
+        if(entries.containsKey(type)) {
+            throw new IllegalStateException(type.getName() + " is already registered");
+        }
+        List<Entry<?>> dependencyEntries = new ArrayList<>();
+        for(Class<?> dependency : dependencies) {
+            dependencyEntries.add(entry(dependency));
+        }
+        Entry<T> entry = new Entry<>(type, factory, dependencyEntries);
+        entries.put(type, entry);
+        ordered.add(entry);
+    }
+
+    public <T> T get(Class<T> type) {
+        return type.cast(entry(type).get());
+    }
+
+    public boolean isInitialized(Class<?> type) {
+        return entry(type).instance != null;
+    }
+
+    // Builds every singleton not built yet on the common fork-join pool
+    public void prewarm() {
+        prewarm(ForkJoinPool.commonPool());
+    }
+
+    // Builds every singleton not built yet on the given pool. A singleton is built as soon as its
+    // dependencies are, so singletons that do not depend on each other are built in parallel.
+    // Returns the wall time in nanoseconds.
+    public long prewarm(ForkJoinPool pool) {
+        long start = System.nanoTime();
+        Map<Entry<?>, CompletableFuture<Void>> tasks = new ConcurrentHashMap<>();
+        for(Entry<?> entry : ordered) {
+            CompletableFuture<?>[] dependencies = entry.dependencies.stream()
+                    .map(tasks::get)
+                    .toArray(CompletableFuture<?>[]::new);
+            tasks.put(entry, CompletableFuture.allOf(dependencies).thenRunAsync(entry::get, pool));
+        }
+        try {
+            CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Singleton pre-warming failed", e.getCause());
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Time spent in the factory of the singleton, without its dependencies, or -1 if not built yet
+    public long getInitTimeNanos(Class<?> type) {
+        Entry<?> entry = entry(type);
+        return entry.instance != null ? entry.initTimeNanos : -1;
+    }
+
+    // One line per built singleton, slowest first
+    public String report() {
+        StringBuilder report = new StringBuilder("Singleton initialization times:");
+        ordered.stream()
+                .filter(entry -> entry.instance != null)
+                .sorted(Comparator.comparingLong((Entry<?> entry) -> entry.initTimeNanos).reversed())
+                .forEach(entry -> report.append(System.lineSeparator())
+                        .append(String.format("  %-40s %10d us on %s", entry.type.getName(),
+                                TimeUnit.NANOSECONDS.toMicros(entry.initTimeNanos), entry.initThread)));
+        return report.toString();
+    }
+
+    private Entry<?> entry(Class<?> type) {
+        Entry<?> entry = entries.get(type);
+        if(entry == null) {
+            throw new IllegalArgumentException(type.getName() + " is not registered");
+        }
+        return entry;
+    }
+
+    private static class Entry<T> {
+
+        private final Class<T> type;
+        private final Supplier<? extends T> factory;
+        private final List<Entry<?>> dependencies;
+        private volatile T instance;
+        // written before instance is published
+        private long initTimeNanos;
+        private String initThread;
+
+        Entry(Class<T> type, Supplier<? extends T> factory, List<Entry<?>> dependencies) {
+            this.type = type;
+            this.factory = factory;
+            this.dependencies = dependencies;
+        }
+
+        T get() {
+            T result = instance;
+            if(result == null) {
+                for(Entry<?> dependency : dependencies) {
+                    dependency.get();
+                }
+                synchronized (this) {
+                    result = instance;
+                    if(result == null) {
+                        long start = System.nanoTime();
+                        result = factory.get();
+                        if(result == null) {
+                            throw new IllegalStateException("Factory of " + type.getName() + " returned null");
+                        }
+                        initTimeNanos = System.nanoTime() - start;
+                        initThread = Thread.currentThread().getName();
+                        instance = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
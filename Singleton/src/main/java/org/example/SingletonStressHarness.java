@@ -0,0 +1,129 @@
+package org.example;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Races many threads on the first getInstance() of a singleton, again and again.
+//
+// Every round loads a fresh copy of the singleton class (SingletonVariant.loadFresh()), lines up
+// all threads on a latch and lets them call getInstance() at once. A round fails when a thread
+// gets null, gets an exception, gets a different instance than the others or gets an instance
+// whose constructor-initialized state it cannot see.
+// usage: SingletonStressHarness [variant|all] [rounds] [threads]
+public class SingletonStressHarness {
+
+    private static final int ROUNDS = 2000;
+    private static final int THREADS = 8;
+
+    public static void main(String[] args) throws InterruptedException {
+        String variant = args.length > 0 ? args[0] : "all";
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : ROUNDS;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : THREADS;
+        boolean failed = false;
+        for(SingletonVariant v : SingletonVariant.values()) {
+            if(variant.equals("all") || SingletonVariant.fromName(variant) == v) {
+                Result result = run(v, rounds, threads);
+                System.out.println(result);
+                failed |= result.getFailedRounds() > 0;
+            }
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    public static Result run(SingletonVariant variant, int rounds, int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Result result = new Result(variant, rounds, threads);
+        try {
+            for(int round=0; round<rounds; round++) {
+                try (FreshCopy copy = variant.loadFresh()) {
+                    runRound(copy, pool, threads, result);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return result;
+    }
+
+    private static void runRound(FreshCopy copy, ExecutorService pool, int threads, Result result) throws InterruptedException {
+        Object[] instances = new Object[threads];
+        boolean[] constructed = new boolean[threads];
+        long[] elapsedNanos = new long[threads];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for(int i=0; i<threads; i++) {
+            int thread = i;
+            pool.execute(() -> {
+                try {
+                    ready.countDown();
+                    go.await();
+                    long start = System.nanoTime();
+                    Object instance = copy.getInstance();
+                    elapsedNanos[thread] = System.nanoTime() - start;
+                    instances[thread] = instance;
+                    constructed[thread] = copy.isFullyConstructed(instance);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        ready.await();
+        go.countDown();
+        done.await();
+
+        boolean failed = false;
+        long slowest = 0;
+        for(int i=0; i<threads; i++) {
+            failed |= instances[i] == null || instances[i] != instances[0] || !constructed[i];
+            slowest = Math.max(slowest, elapsedNanos[i]);
+        }
+        result.roundFinished(failed, slowest);
+    }
+
+    public static class Result {
+
+        private final SingletonVariant variant;
+        private final int rounds;
+        private final int threads;
+        private int failedRounds;
+        private long totalSlowestNanos;
+        private long maxSlowestNanos;
+
+        Result(SingletonVariant variant, int rounds, int threads) {
+            this.variant = variant;
+            this.rounds = rounds;
+            this.threads = threads;
+        }
+
+        void roundFinished(boolean failed, long slowestNanos) {
+            if(failed) {
+                failedRounds++;
+            }
+            totalSlowestNanos += slowestNanos;
+            maxSlowestNanos = Math.max(maxSlowestNanos, slowestNanos);
+        }
+
+        public int getFailedRounds() {
+            return failedRounds;
+        }
+
+        // Until the last thread of a round got the instance
+        public long getMeanFirstAccessNanos() {
+            return totalSlowestNanos / rounds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-14s %d rounds x %d threads: %d failed, first access mean=%d us max=%d us",
+                    variant, rounds, threads, failedRounds,
+                    TimeUnit.NANOSECONDS.toMicros(getMeanFirstAccessNanos()), TimeUnit.NANOSECONDS.toMicros(maxSlowestNanos));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example;
+
+// The lazy singleton implementations, for the stress harness and the benchmarks.
+//
+// Each of them sets a non-final field in its constructor and checks it in isFullyConstructed().
+// A thread that gets an instance whose construction it cannot see yet, i.e. an instance that was
+// not published safely, finds the field unset.
+public enum SingletonVariant {
+
+    DOUBLE_CHECKED(DoubleCheckedSingleton.class),
+    HOLDER(HolderSingleton.class),
+    ENUM(EnumSingleton.class),
+    VAR_HANDLE(VarHandleSingleton.class);
+
+    private final Class<?> type;
+
+    SingletonVariant(Class<?> type) {
+        this.type = type;
+    }
+
+    public static SingletonVariant fromName(String name) {
+        return valueOf(name.toUpperCase().replace('-', '_'));
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public FreshCopy loadFresh() {
+        return new FreshCopy(type);
+    }
+}
@@ -0,0 +1,18 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+// Turns the state of a singleton into the payload of a snapshot file and back, see Snapshots.
+public interface SnapshotCodec<T> {
+
+    // Change it whenever the payload layout changes, older snapshots are then rebuilt
+    int version();
+
+    int size(T state);
+
+    // out has exactly size(state) bytes left
+    void write(T state, ByteBuffer out);
+
+    // in is a read-only view of the mapped payload and may be kept by the returned state
+    T read(ByteBuffer in);
+}
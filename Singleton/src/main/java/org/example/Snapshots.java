@@ -0,0 +1,119 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+// Keeps built singleton state in a binary snapshot file, so later JVM starts map the file instead
+// of computing the state again.
+//
+// File layout: [int magic][int codec version][int byte order][int unused][long payload size]
+// [long CRC32 of the payload][payload]. The payload is written and read in native byte order.
+// A snapshot with another magic, version or byte order, a wrong size or a wrong checksum is
+// ignored, the state is built and the snapshot written again.
+public final class Snapshots {
+
+    private static final int MAGIC = 0x534E4150;
+    private static final int HEADER_SIZE = 32;
+    private static final int LITTLE_ENDIAN = 1;
+    private static final int BIG_ENDIAN = 2;
+
+    private Snapshots() {
+    }
+
+    // With a null file the state is always built
+    public static <T> T loadOrBuild(Path file, SnapshotCodec<T> codec, Supplier<? extends T> build) {
+        if(file == null) {
+            return build.get();
+        }
+        T state = load(file, codec);
+        if(state == null) {
+            state = build.get();
+            try {
+                save(file, codec, state);
+            } catch (IOException e) {
+                // the state is fine without a snapshot, it is built again on the next start
+                warn("Could not write snapshot " + file, e);
+            }
+        }
+        return state;
+    }
+
+    // Returns null when there is no usable snapshot
+    public static <T> T load(Path file, SnapshotCodec<T> codec) {
+        if(!Files.isRegularFile(file)) {
+            return null;
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            warn("Could not read snapshot " + file, e);
+            return null;
+        }
+        mapped.order(ByteOrder.nativeOrder());
+        if(mapped.getInt(0) != MAGIC || mapped.getInt(4) != codec.version() || mapped.getInt(8) != nativeOrder()
+                || mapped.getLong(16) != mapped.capacity() - HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer payload = mapped.position(HEADER_SIZE).slice().order(ByteOrder.nativeOrder());
+        if(mapped.getLong(24) != checksum(payload.duplicate())) {
+            return null;
+        }
+        return codec.read(payload.asReadOnlyBuffer().order(ByteOrder.nativeOrder()));
+    }
+
+    // Writes a temporary file next to the snapshot and moves it over the old one, so a crash
+    // never leaves half a snapshot behind. Every writer has its own temporary file, so JVMs that
+    // start at the same time never write into each other's mapping; the last move wins.
+    public static <T> void save(Path file, SnapshotCodec<T> codec, T state) throws IOException {
+        int size = codec.size(state);
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + ".", ".tmp");
+        try {
+            write(temporary, codec, state, size);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static <T> void write(Path temporary, SnapshotCodec<T> codec, T state, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) size);
+            mapped.order(ByteOrder.nativeOrder());
+            ByteBuffer payload = mapped.position(HEADER_SIZE).slice().order(ByteOrder.nativeOrder());
+            codec.write(state, payload.duplicate().order(ByteOrder.nativeOrder()));
+            mapped.putInt(0, MAGIC);
+            mapped.putInt(4, codec.version());
+            mapped.putInt(8, nativeOrder());
+            mapped.putLong(16, size);
+            mapped.putLong(24, checksum(payload));
+            mapped.force();
+        }
+    }
+
+    private static void warn(String message, IOException e) {
+        System.err.println("WARNING: " + message + ": " + e);
+    }
+
+    private static long checksum(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    private static int nativeOrder() {
+        return ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? LITTLE_ENDIAN : BIG_ENDIAN;
+    }
+}
@@ -0,0 +1,99 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// A small fixed number of instances, by default one per CPU, shared by all threads.
+//
+// Each thread keeps a probe value that picks its stripe, so threads mostly spread over different
+// instances. Instances must still be thread safe, but a stripe is only contended by the few threads
+// that share it. A thread that sees contention (a failed CAS, a busy lock) calls advanceProbe() to
+// move to another stripe. Instances are created lazily.
+// The instances are ordinary objects from the factory and may end up next to each other on one
+// cache line. Instances with often written fields should pad those fields themselves, as the
+// @Contended cells of a LongAdder are.
+public class StripedSingleton<T> implements AutoCloseable {
+
+    private final Supplier<? extends T> factory;
+    private final Consumer<? super T> cleanup;
+    private final AtomicReferenceArray<T> stripes;
+    private final int mask;
+    private final ThreadLocal<int[]> probe = ThreadLocal.withInitial(StripedSingleton::initialProbe);
+
+    public StripedSingleton(Supplier<? extends T> factory, Consumer<? super T> cleanup) {
+        this(Runtime.getRuntime().availableProcessors(), factory, cleanup);
+    }
+
+    // stripeCount is rounded up to a power of two
+    public StripedSingleton(int stripeCount, Supplier<? extends T> factory, Consumer<? super T> cleanup) {
+        if(stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripeCount);
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if(size < stripeCount) {
+            size <<= 1;
+        }
+        this.factory = factory;
+        this.cleanup = cleanup;
+        this.stripes = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public T get() {
+        int index = probe.get()[0] & mask;
+        T instance = stripes.get(index);
+        if(instance == null) {
+            T created = factory.get();
+            if(stripes.compareAndSet(index, null, created)) {
+                instance = created;
+            } else {
+                cleanup.accept(created);
+                instance = stripes.get(index);
+            }
+        }
+        return instance;
+    }
+
+    // Moves the current thread to another stripe (xorshift step, as in ThreadLocalRandom)
+    public void advanceProbe() {
+        int[] current = probe.get();
+        int p = current[0];
+        p ^= p << 13;
+        p ^= p >>> 17;
+        p ^= p << 5;
+        current[0] = p;
+    }
+
+    public int stripeCount() {
+        return mask + 1;
+    }
+
+    // Visits the instances created so far
+    public void forEach(Consumer<? super T> action) {
+        for(int i=0; i<stripes.length(); i++) {
+            T instance = stripes.get(i);
+            if(instance != null) {
+                action.accept(instance);
+            }
+        }
+    }
+
+    // Cleans up all instances, call it when no thread uses them any more
+    @Override
+    public void close() {
+        for(int i=0; i<stripes.length(); i++) {
+            T instance = stripes.getAndSet(i, null);
+            if(instance != null) {
+                cleanup.accept(instance);
+            }
+        }
+    }
+
+    // Spreads sequential thread ids, never zero so the xorshift steps never get stuck
+    private static int[] initialProbe() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        int p = (int) (h ^ (h >>> 32));
+        return new int[]{p == 0 ? 1 : p};
+    }
+}
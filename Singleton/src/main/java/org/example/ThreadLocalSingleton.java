@@ -0,0 +1,86 @@
+package org.example;
+
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// One instance per thread, created by the factory on the thread's first get().
+//
+// A thread uses its own instance without any synchronization, so it can hold mutable buffers and
+// counters. Every instance is also remembered, so forEach() can aggregate them and close() can run
+// the cleanup hook for instances of threads that never called remove(). Instances of threads that
+// have ended are cleaned up (the hook can fold them into a total) the next time a thread creates
+// its instance or forEach() runs.
+public class ThreadLocalSingleton<T> implements AutoCloseable {
+
+    private final Supplier<? extends T> factory;
+    private final Consumer<? super T> cleanup;
+    // compared by identity, instances may well be equal to each other
+    private final Queue<Entry<T>> entries = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Entry<T>> entry = new ThreadLocal<>();
+
+    public ThreadLocalSingleton(Supplier<? extends T> factory, Consumer<? super T> cleanup) {
+        this.factory = factory;
+        this.cleanup = cleanup;
+    }
+
+    public T get() {
+        Entry<T> current = entry.get();
+        if(current == null) {
+            cleanUpEndedThreads();
+            current = new Entry<>(Thread.currentThread(), factory.get());
+            entries.add(current);
+            entry.set(current);
+        }
+        return current.instance;
+    }
+
+    // Cleans up the instance of the current thread, a later get() creates a new one
+    public void remove() {
+        Entry<T> current = entry.get();
+        entry.remove();
+        if(current != null && entries.remove(current)) {
+            cleanup.accept(current.instance);
+        }
+    }
+
+    // Visits the instances of live threads. They may be in use while this runs, so only read what is safe to read.
+    public void forEach(Consumer<? super T> action) {
+        cleanUpEndedThreads();
+        for(Entry<T> next : entries) {
+            action.accept(next.instance);
+        }
+    }
+
+    // Cleans up the instances of all threads, call it when no thread uses them any more
+    @Override
+    public void close() {
+        Entry<T> next;
+        while((next = entries.poll()) != null) {
+            cleanup.accept(next.instance);
+        }
+    }
+
+    private void cleanUpEndedThreads() {
+        for(Entry<T> next : entries) {
+            Thread owner = next.owner.get();
+            if((owner == null || !owner.isAlive()) && entries.remove(next)) {
+                cleanup.accept(next.instance);
+            }
+        }
+    }
+
+    // Does not keep an ended thread reachable
+    private static class Entry<T> {
+
+        private final WeakReference<Thread> owner;
+        private final T instance;
+
+        Entry(Thread owner, T instance) {
+            this.owner = new WeakReference<>(owner);
+            this.instance = instance;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Double checked locking with a plain field accessed through a VarHandle.
+// The instance only has to be published safely, so an acquire load on the fast path and a release
+// store on the slow path are enough, instead of the full volatile read and write of Singleton.
+public class VarHandleSingleton {
+
+    private static final VarHandle INSTANCE;
+    private static VarHandleSingleton instance;
+
+    static {
+        try {
+            INSTANCE = MethodHandles.lookup().findStaticVarHandle(VarHandleSingleton.class, "instance", VarHandleSingleton.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // set only by the constructor, see SingletonVariant
+    private int[] state;
+
+    private VarHandleSingleton() {
+        state = new int[]{1, 2, 3};
+    }
+
+    public static VarHandleSingleton getInstance() {
+        VarHandleSingleton result = (VarHandleSingleton) INSTANCE.getAcquire();
+        if(result == null) {
+            synchronized (VarHandleSingleton.class) {
+                result = instance;
+                if(result == null) {
+                    result = new VarHandleSingleton();
+                    INSTANCE.setRelease(result);
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isFullyConstructed() {
+        int[] current = state;
+        return current != null && current.length == 3 && current[2] == 3;
+    }
+}
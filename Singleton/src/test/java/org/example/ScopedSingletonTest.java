@@ -0,0 +1,55 @@
+package org.example;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScopedSingletonTest {
+
+    private final List<StringBuilder> cleanedUp = new ArrayList<>();
+
+    @Test
+    public void testNestedScopes() throws Exception {
+        ScopedSingleton<StringBuilder> buffer = new ScopedSingleton<>(StringBuilder::new, cleanedUp::add);
+
+        String result = buffer.call(() -> {
+            StringBuilder outer = buffer.get();
+            outer.append("outer");
+            buffer.run(() -> {
+                assertNotSame(outer, buffer.get());
+                buffer.get().append("inner");
+            });
+            assertSame(outer, buffer.get());
+            return outer.toString();
+        });
+
+        assertEquals("outer", result);
+        assertFalse(buffer.isBound());
+        assertEquals(2, cleanedUp.size());
+        assertEquals("inner", cleanedUp.get(0).toString());
+    }
+
+    @Test
+    public void testCleanupOnFailure() {
+        ScopedSingleton<StringBuilder> buffer = new ScopedSingleton<>(StringBuilder::new, cleanedUp::add);
+
+        try {
+            buffer.run(() -> {
+                throw new IllegalArgumentException();
+            });
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertFalse(buffer.isBound());
+        assertEquals(1, cleanedUp.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testOutsideOfScope() {
+        new ScopedSingleton<>(StringBuilder::new, b -> {}).get();
+    }
+}
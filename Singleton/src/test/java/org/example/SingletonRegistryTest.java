@@ -0,0 +1,100 @@
+package org.example;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SingletonRegistryTest {
+
+    private final List<String> built = new ArrayList<>();
+
+    @Test
+    public void testSameInstance() {
+        SingletonRegistry registry = new SingletonRegistry();
+        registry.register(StringBuilder.class, StringBuilder::new);
+
+        assertFalse(registry.isInitialized(StringBuilder.class));
+        assertSame(registry.get(StringBuilder.class), registry.get(StringBuilder.class));
+        assertTrue(registry.getInitTimeNanos(StringBuilder.class) >= 0);
+    }
+
+    @Test
+    public void testDependenciesBuiltFirst() {
+        SingletonRegistry registry = new SingletonRegistry();
+        registry.register(Config.class, () -> built(new Config()));
+        registry.register(Service.class, () -> built(new Service(registry.get(Config.class))), Config.class);
+
+        Service service = registry.get(Service.class);
+
+        assertSame(registry.get(Config.class), service.config);
+        assertEquals("Config", built.get(0));
+        assertEquals("Service", built.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnregisteredDependency() {
+        new SingletonRegistry().register(Service.class, () -> new Service(null), Config.class);
+    }
+
+    @Test
+    public void testPrewarmBuildsIndependentSingletonsInParallel() {
+        // each factory waits for the other, so prewarm only finishes if both run at the same time
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        SingletonRegistry registry = new SingletonRegistry();
+        registry.register(Config.class, () -> {
+            awaitOther(bothStarted);
+            return new Config();
+        });
+        registry.register(StringBuilder.class, () -> {
+            awaitOther(bothStarted);
+            return new StringBuilder();
+        });
+        registry.register(Service.class, () -> new Service(registry.get(Config.class)), Config.class);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            registry.prewarm(pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertTrue(registry.isInitialized(Config.class));
+        assertTrue(registry.isInitialized(StringBuilder.class));
+        assertTrue(registry.isInitialized(Service.class));
+        assertTrue(registry.report().contains(Service.class.getName()));
+    }
+
+    private <T> T built(T instance) {
+        built.add(instance.getClass().getSimpleName());
+        return instance;
+    }
+
+    private static void awaitOther(CountDownLatch bothStarted) {
+        bothStarted.countDown();
+        try {
+            if(!bothStarted.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Singletons were not built in parallel");
+            }
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class Config {
+    }
+
+    static class Service {
+
+        final Config config;
+
+        Service(Config config) {
+            this.config = config;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class SingletonStressTest {
+
+    private static final int ROUNDS = 200;
+    private static final int THREADS = 8;
+
+    @Test
+    public void testConcurrentFirstAccess() throws InterruptedException {
+        for(SingletonVariant variant : SingletonVariant.values()) {
+            SingletonStressHarness.Result result = SingletonStressHarness.run(variant, ROUNDS, THREADS);
+
+            assertEquals(result.toString(), 0, result.getFailedRounds());
+        }
+    }
+
+    @Test
+    public void testFreshCopyIsNotShared() {
+        for(SingletonVariant variant : SingletonVariant.values()) {
+            try (FreshCopy copy = variant.loadFresh()) {
+                Object instance = copy.getInstance();
+
+                assertNotSame(variant.getType(), instance.getClass());
+                assertEquals(variant.getType().getName(), instance.getClass().getName());
+                assertTrue(copy.isFullyConstructed(instance));
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SnapshotsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @Test
+    public void testBuildsOnceThenLoads() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("table.snapshot");
+
+        IntBuffer built = Snapshots.loadOrBuild(file, new TableCodec(1), this::build);
+        IntBuffer loaded = Snapshots.loadOrBuild(file, new TableCodec(1), this::build);
+
+        assertEquals(1, builds.get());
+        assertEquals(built, loaded);
+        assertTrue(loaded.isReadOnly());
+    }
+
+    @Test
+    public void testRebuildsOnOtherVersion() {
+        Path file = folder.getRoot().toPath().resolve("table.snapshot");
+
+        Snapshots.loadOrBuild(file, new TableCodec(1), this::build);
+        Snapshots.loadOrBuild(file, new TableCodec(2), this::build);
+        Snapshots.loadOrBuild(file, new TableCodec(2), this::build);
+
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    public void testRebuildsOnWrongChecksum() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("table.snapshot");
+        Snapshots.loadOrBuild(file, new TableCodec(1), this::build);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), channel.size() - 1);
+        }
+
+        assertNull(Snapshots.load(file, new TableCodec(1)));
+        assertEquals(build(), Snapshots.loadOrBuild(file, new TableCodec(1), this::build));
+        assertNotNull(Snapshots.load(file, new TableCodec(1)));
+    }
+
+    @Test
+    public void testNoFileAlwaysBuilds() {
+        Snapshots.loadOrBuild(null, new TableCodec(1), this::build);
+        Snapshots.loadOrBuild(null, new TableCodec(1), this::build);
+
+        assertEquals(2, builds.get());
+    }
+
+    private IntBuffer build() {
+        builds.incrementAndGet();
+        int[] table = new int[1000];
+        for(int i=0; i<table.length; i++) {
+            table[i] = i * i;
+        }
+        return IntBuffer.wrap(table);
+    }
+
+    private static class TableCodec implements SnapshotCodec<IntBuffer> {
+
+        private final int version;
+
+        TableCodec(int version) {
+            this.version = version;
+        }
+
+        @Override
+        public int version() {
+            return version;
+        }
+
+        @Override
+        public int size(IntBuffer table) {
+            return Integer.BYTES * table.capacity();
+        }
+
+        @Override
+        public void write(IntBuffer table, ByteBuffer out) {
+            out.asIntBuffer().put(table.duplicate());
+        }
+
+        @Override
+        public IntBuffer read(ByteBuffer in) {
+            return in.asIntBuffer();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example;
+
+import org.junit.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+
+public class StripedSingletonTest {
+
+    private final List<LongAdder> cleanedUp = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testStripeCountRoundedUp() {
+        assertEquals(8, new StripedSingleton<>(5, LongAdder::new, cleanedUp::add).stripeCount());
+        assertEquals(1, new StripedSingleton<>(1, LongAdder::new, cleanedUp::add).stripeCount());
+    }
+
+    @Test
+    public void testAdvanceProbeMovesToOtherStripes() {
+        StripedSingleton<LongAdder> counters = new StripedSingleton<>(4, LongAdder::new, cleanedUp::add);
+        Set<LongAdder> seen = new HashSet<>();
+        for(int i=0; i<100; i++) {
+            LongAdder counter = counters.get();
+            assertSame(counter, counters.get());
+            counter.increment();
+            seen.add(counter);
+            counters.advanceProbe();
+        }
+
+        assertEquals(4, seen.size());
+        long[] sum = new long[1];
+        counters.forEach(counter -> sum[0] += counter.sum());
+        assertEquals(100, sum[0]);
+
+        counters.close();
+        assertEquals(4, cleanedUp.size());
+    }
+}
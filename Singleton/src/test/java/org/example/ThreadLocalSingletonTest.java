@@ -0,0 +1,96 @@
+package org.example;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ThreadLocalSingletonTest {
+
+    private final List<AtomicLong> cleanedUp = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testOneInstancePerThread() throws InterruptedException {
+        ThreadLocalSingleton<AtomicLong> counters = new ThreadLocalSingleton<>(AtomicLong::new, cleanedUp::add);
+        AtomicLong mine = counters.get();
+        AtomicLong[] other = new AtomicLong[1];
+        Thread thread = new Thread(() -> {
+            other[0] = counters.get();
+            other[0].addAndGet(5);
+        });
+        thread.start();
+        thread.join();
+        mine.incrementAndGet();
+
+        assertSame(mine, counters.get());
+        assertNotSame(mine, other[0]);
+        // the other thread has ended, so its counter went to the cleanup hook
+        long[] sum = new long[1];
+        counters.forEach(counter -> sum[0] += counter.get());
+        cleanedUp.forEach(counter -> sum[0] += counter.get());
+        assertEquals(6, sum[0]);
+    }
+
+    @Test
+    public void testCleanup() {
+        ThreadLocalSingleton<AtomicLong> counters = new ThreadLocalSingleton<>(AtomicLong::new, cleanedUp::add);
+        AtomicLong first = counters.get();
+
+        counters.remove();
+        AtomicLong second = counters.get();
+        counters.close();
+
+        assertNotSame(first, second);
+        assertEquals(2, cleanedUp.size());
+        assertSame(first, cleanedUp.get(0));
+        assertSame(second, cleanedUp.get(1));
+    }
+
+    @Test
+    public void testEqualInstancesKeptApart() throws InterruptedException {
+        List<List<String>> cleaned = new ArrayList<>();
+        ThreadLocalSingleton<List<String>> buffers = new ThreadLocalSingleton<>(ArrayList::new, cleaned::add);
+        CountDownLatch otherCreated = new CountDownLatch(1);
+        CountDownLatch mineRemoved = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            buffers.get();
+            otherCreated.countDown();
+            try {
+                mineRemoved.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        otherCreated.await();
+        List<String> mine = buffers.get();
+
+        buffers.remove();
+        int[] visited = new int[1];
+        buffers.forEach(buffer -> visited[0]++);
+        mineRemoved.countDown();
+        thread.join();
+
+        assertEquals(1, visited[0]);
+        assertEquals(1, cleaned.size());
+        assertSame(mine, cleaned.get(0));
+    }
+
+    @Test
+    public void testCleanupOfEndedThread() throws InterruptedException {
+        ThreadLocalSingleton<AtomicLong> counters = new ThreadLocalSingleton<>(AtomicLong::new, cleanedUp::add);
+        Thread thread = new Thread(() -> counters.get().incrementAndGet());
+        thread.start();
+        thread.join();
+
+        counters.forEach(counter -> fail("instance of an ended thread visited"));
+
+        assertEquals(1, cleanedUp.size());
+        assertEquals(1, cleanedUp.get(0).get());
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.benchmark;
+
+import org.example.FreshCopy;
+import org.example.SingletonVariant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Latency of the very first getInstance(), including class initialization.
+//
+// Before every single call a fresh copy of the singleton class is loaded by a new class loader
+// (SingletonVariant.loadFresh()), so each measured call creates the instance.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50)
+@Measurement(iterations = 500)
+@Fork(1)
+@State(Scope.Thread)
+public class FirstAccessBenchmark {
+
+    @Param({"double-checked", "holder", "enum", "var-handle"})
+    String variant;
+
+    FreshCopy copy;
+
+    @Setup(Level.Iteration)
+    public void loadFreshCopy() {
+        copy = SingletonVariant.fromName(variant).loadFresh();
+    }
+
+    @Benchmark
+    public Object firstAccess() {
+        return copy.getInstance();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeCopy() {
+        copy.close();
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.benchmark;
+
+import org.example.EnumSingleton;
+import org.example.HolderSingleton;
+import org.example.Singleton;
+import org.example.VarHandleSingleton;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of getInstance() once the instance exists, i.e. the fast path every caller takes.
+//
+// baseline reads a plain field, so the difference to it is what the check for the instance costs.
+// On x86 a volatile read compiles to a plain load, so expect the variants to be close there and
+// further apart on weaker memory models. Run with -t <threads> to read from several threads.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SingletonAccessBenchmark {
+
+    private final Object plain = new Object();
+
+    @Benchmark
+    public Object baseline() {
+        return plain;
+    }
+
+    @Benchmark
+    public Object doubleChecked() {
+        return Singleton.getInstance();
+    }
+
+    @Benchmark
+    public Object holder() {
+        return HolderSingleton.getInstance();
+    }
+
+    @Benchmark
+    public Object enumConstant() {
+        return EnumSingleton.getInstance();
+    }
+
+    @Benchmark
+    public Object varHandle() {
+        return VarHandleSingleton.getInstance();
+    }
+}
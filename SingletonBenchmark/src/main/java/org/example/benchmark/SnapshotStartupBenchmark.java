@@ -0,0 +1,76 @@
+package org.example.benchmark;
+
+import org.example.CollatzTable;
+import org.example.FreshCopy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Time to the first CollatzTable.getInstance(), building the table or loading its snapshot.
+//
+// Like FirstAccessBenchmark every call goes to a freshly loaded copy of the class. The snapshot is
+// written once before the measurement, so every measured load maps it and verifies its checksum.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 30)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotStartupBenchmark {
+
+    @Param({"build", "snapshot"})
+    String startup;
+
+    Path directory;
+    FreshCopy copy;
+
+    @Setup(Level.Trial)
+    public void prepareSnapshot() throws IOException {
+        directory = Files.createTempDirectory("singleton-snapshots");
+        System.setProperty("singleton.snapshot.dir", "snapshot".equals(startup) ? directory.toString() : "none");
+        try (FreshCopy first = new FreshCopy(CollatzTable.class)) {
+            first.getInstance();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void loadFreshCopy() {
+        copy = new FreshCopy(CollatzTable.class);
+    }
+
+    // the copy is a different class than CollatzTable, so it is only handed to the blackhole
+    @Benchmark
+    public Object firstAccess() {
+        return copy.getInstance();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeCopy() {
+        copy.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSnapshot() throws IOException {
+        System.clearProperty("singleton.snapshot.dir");
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}